@@ -0,0 +1,103 @@
+package com.dailyapp.benchmark;
+
+import com.dailyapp.model.FocusSession;
+import com.dailyapp.model.TodoCollection;
+import com.dailyapp.model.TodoItem;
+import com.dailyapp.model.User;
+import com.dailyapp.security.JwtService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试共用的数据构造
+ */
+final class BenchmarkFixtures {
+
+    static final String JWT_SECRET = "benchmark-secret-key-must-be-at-least-32-characters";
+    static final long JWT_EXPIRATION = 7L * 24 * 60 * 60 * 1000;
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtService jwtService() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", JWT_EXPIRATION);
+        jwtService.init();
+        return jwtService;
+    }
+
+    static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("benchmark-user");
+        user.setPassword("$2a$10$N9qo8uLOickgx2ZMRZoMye.IjZGgzJg7fQZm7W91NQeQvl9FLGW1O");
+        return user;
+    }
+
+    /**
+     * 从今天往前每天 perDay 条专注记录，共 count 条
+     */
+    static List<FocusSession> focusSessions(int count, int perDay) {
+        User user = user();
+        LocalDate today = LocalDate.now();
+        List<FocusSession> sessions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = today.minusDays(i / perDay).atTime(8 + i % perDay, 0);
+            FocusSession session = new FocusSession();
+            session.setId((long) i + 1);
+            session.setUser(user);
+            session.setStartTime(start);
+            session.setEndTime(start.plusMinutes(25));
+            session.setDurationMinutes(25);
+            session.setTaskDescription("专注任务 " + i);
+            session.setCreatedAt(start.plusMinutes(25));
+            session.setUpdatedAt(start.plusMinutes(25));
+            sessions.add(session);
+        }
+        return sessions;
+    }
+
+    static List<TodoItem> todoItems(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<TodoItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TodoItem item = new TodoItem();
+            item.setId((long) i + 1);
+            item.setUserId(1L);
+            item.setTitle("待办事项 " + i);
+            item.setDescription("这是第 " + i + " 条待办的描述");
+            item.setType("WORK");
+            item.setDuration(30);
+            item.setIsCompleted(i % 3 == 0);
+            item.setIsImportant(i % 2 == 0);
+            item.setIsUrgent(i % 5 == 0);
+            item.setCreateTime(now.minusHours(i));
+            item.setCompletedTime(i % 3 == 0 ? now.minusHours(i).plusMinutes(30) : null);
+            item.setFocusTime(i % 3 == 0 ? 25 : null);
+            items.add(item);
+        }
+        return items;
+    }
+
+    static List<TodoCollection> todoCollections(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<TodoCollection> collections = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TodoCollection collection = new TodoCollection();
+            collection.setId((long) i + 1);
+            collection.setUserId(1L);
+            collection.setTitle("待办合集 " + i);
+            collection.setDescription("这是第 " + i + " 个合集的描述");
+            collection.setIsSequenceActive(i % 4 == 0);
+            collection.setCurrentTaskIndex(i % 4 == 0 ? 0 : -1);
+            collection.setCreateTime(now.minusDays(i));
+            collections.add(collection);
+        }
+        return collections;
+    }
+}
@@ -0,0 +1,159 @@
+package com.dailyapp.benchmark;
+
+import com.dailyapp.security.JwtAuthenticationFilter;
+import com.dailyapp.security.JwtService;
+import com.dailyapp.security.UserPrincipal;
+import com.dailyapp.security.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * JwtAuthenticationFilter 处理一次带令牌请求的耗时，轮流使用 tokenCount 个不同令牌
+ * cached / uncached 为当前过滤器开启或关闭已验证令牌缓存，cached 的容量等于令牌数；
+ * cached-10000 的容量固定为 10000（早期的 jwt.cache.maximum-size 默认值），令牌数超过容量时缓存不断淘汰；original 还原了早期过滤器的写法：
+ * 每次请求解析验签三次，每次解析都重新构建密钥和解析器，并按用户名查询用户（这里用内存表代替数据库）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int tokenCount;
+
+    @Param({"cached", "cached-10000", "uncached", "original"})
+    public String filterVersion;
+
+    private Filter filter;
+    private String[] authorizationHeaders;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+    private int next;
+
+    @Setup
+    public void setUp() throws ServletException, IOException {
+        JwtService jwtService = BenchmarkFixtures.jwtService();
+        Map<String, UserDetails> users = new HashMap<>();
+        authorizationHeaders = new String[tokenCount];
+        for (int i = 0; i < tokenCount; i++) {
+            UserPrincipal principal = new UserPrincipal((long) i + 1, "user" + i, null);
+            users.put(principal.getUsername(), principal);
+            authorizationHeaders[i] = "Bearer " + jwtService.generateToken(principal);
+        }
+
+        if ("original".equals(filterVersion)) {
+            filter = new OriginalFilter(BenchmarkFixtures.JWT_SECRET, users::get);
+        } else {
+            long cacheSize = "cached".equals(filterVersion) ? tokenCount : "cached-10000".equals(filterVersion) ? 10000 : 0;
+            VerifiedTokenCache cache = new VerifiedTokenCache(cacheSize);
+            // 新令牌都带有用户ID，不会回退到查询用户
+            filter = new JwtAuthenticationFilter(jwtService, username -> {
+                throw new IllegalStateException("不应查询用户");
+            }, cache);
+        }
+
+        request = new MockHttpServletRequest("GET", "/api/todos");
+        response = new MockHttpServletResponse();
+        chain = (servletRequest, servletResponse) -> { };
+
+        // 预热缓存：每个令牌先请求一次
+        for (int i = 0; i < tokenCount; i++) {
+            filterOnce();
+        }
+    }
+
+    @Benchmark
+    public Object doFilter() throws ServletException, IOException {
+        return filterOnce();
+    }
+
+    private Object filterOnce() throws ServletException, IOException {
+        request.removeHeader("Authorization");
+        request.addHeader("Authorization", authorizationHeaders[next]);
+        next = (next + 1) % tokenCount;
+        try {
+            filter.doFilter(request, response, chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * 早期的 JwtAuthenticationFilter 与 JwtService：extractUsername 解析一次，
+     * isTokenValid 中提取用户名和过期时间各解析一次
+     */
+    private static class OriginalFilter extends OncePerRequestFilter {
+        private final String secretKey;
+        private final UserDetailsService userDetailsService;
+
+        OriginalFilter(String secretKey, UserDetailsService userDetailsService) {
+            this.secretKey = secretKey;
+            this.userDetailsService = userDetailsService;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            final String authHeader = request.getHeader("Authorization");
+            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+
+            String jwt = authHeader.substring(7);
+            String username = extractClaim(jwt, Claims::getSubject);
+            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                if (isTokenValid(jwt, userDetails)) {
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
+            }
+            filterChain.doFilter(request, response);
+        }
+
+        private boolean isTokenValid(String token, UserDetails userDetails) {
+            String username = extractClaim(token, Claims::getSubject);
+            return username.equals(userDetails.getUsername())
+                    && !extractClaim(token, Claims::getExpiration).before(new Date());
+        }
+
+        private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
+            Claims claims = Jwts.parserBuilder()
+                    .setSigningKey(Keys.hmacShaKeyFor(secretKey.getBytes()))
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+            return claimsResolver.apply(claims);
+        }
+    }
+}
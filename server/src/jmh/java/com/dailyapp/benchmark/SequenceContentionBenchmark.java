@@ -0,0 +1,110 @@
+package com.dailyapp.benchmark;
+
+import com.dailyapp.DailyAppApplication;
+import com.dailyapp.dto.SequenceResponse;
+import com.dailyapp.dto.TodoCollectionRequest;
+import com.dailyapp.model.User;
+import com.dailyapp.repository.UserRepository;
+import com.dailyapp.service.TodoCollectionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多个线程同时对同一合集执行“下一个子任务”，模拟多台设备连续点击
+ * 每次调用先读取当前进度再作为 expectedIndex 提交，与客户端的用法一致
+ * 走完序列的线程负责重新开始；序列未激活时的调用计为被拒绝，进度已被其他线程推进时计为过期推进被拒绝
+ * 结束时校验：成功次数应等于 完整走完的轮数 × 子任务数 + 当前进度，差值即丢失或重复的推进
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class SequenceContentionBenchmark {
+
+    private static final int ITEM_COUNT = 10;
+
+    private ConfigurableApplicationContext context;
+    private TodoCollectionService todoCollectionService;
+    private Long userId;
+    private Long collectionId;
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong staleRejected = new AtomicLong();
+    private final AtomicLong completedRuns = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(DailyAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run("--spring.profiles.active=benchmark",
+                        "--spring.datasource.url=jdbc:h2:mem:contention;DB_CLOSE_DELAY=-1",
+                        "--spring.sql.init.mode=never",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.dailyapp=WARN",
+                        "--logging.level.org.springframework.security=WARN");
+        todoCollectionService = context.getBean(TodoCollectionService.class);
+
+        User user = BenchmarkFixtures.user();
+        user.setId(null);
+        userId = context.getBean(UserRepository.class).save(user).getId();
+
+        TodoCollectionRequest request = new TodoCollectionRequest();
+        request.setTitle("并发序列合集");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            TodoCollectionRequest.TodoCollectionItemRequest itemRequest = new TodoCollectionRequest.TodoCollectionItemRequest();
+            itemRequest.setTitle("子任务 " + i);
+            itemRequest.setDurationMinutes(25);
+            request.getItems().add(itemRequest);
+        }
+        collectionId = todoCollectionService.createTodoCollection(userId, request).getId();
+        todoCollectionService.startSequence(userId, collectionId, null);
+    }
+
+    @Benchmark
+    public Object next() {
+        SequenceResponse sequence;
+        try {
+            int seenIndex = todoCollectionService.getTodoCollectionByIdAndUserId(collectionId, userId).getCurrentTaskIndex();
+            sequence = todoCollectionService.nextTaskInSequence(userId, collectionId, seenIndex);
+        } catch (ResponseStatusException e) {
+            // 读到的进度已被其他线程推进
+            staleRejected.incrementAndGet();
+            return e;
+        } catch (RuntimeException e) {
+            // 序列已走完尚未重新开始
+            rejected.incrementAndGet();
+            return e;
+        }
+        succeeded.incrementAndGet();
+        if (!sequence.getIsSequenceActive()) {
+            completedRuns.incrementAndGet();
+            todoCollectionService.startSequence(userId, collectionId, null);
+        }
+        return sequence;
+    }
+
+    @TearDown
+    public void tearDown() {
+        // 直接查库，避免读到并发期间放回二级缓存的旧值
+        long progress = context.getBean(JdbcTemplate.class).queryForObject(
+                "SELECT CASE WHEN is_sequence_active THEN current_task_index ELSE 0 END FROM todo_collections WHERE id = ?",
+                Long.class, collectionId);
+        long expected = completedRuns.get() * ITEM_COUNT + progress;
+        System.out.printf("%n成功 %d 次，过期推进被拒绝 %d 次，序列未激活被拒绝 %d 次，走完 %d 轮，当前进度 %d：丢失或重复的推进 %d 次%n",
+                succeeded.get(), staleRejected.get(), rejected.get(), completedRuns.get(), progress, succeeded.get() - expected);
+        context.close();
+    }
+}
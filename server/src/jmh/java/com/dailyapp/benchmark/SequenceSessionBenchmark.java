@@ -0,0 +1,126 @@
+package com.dailyapp.benchmark;
+
+import com.dailyapp.DailyAppApplication;
+import com.dailyapp.dto.SequenceResponse;
+import com.dailyapp.dto.TodoCollectionRequest;
+import com.dailyapp.model.TodoCollection;
+import com.dailyapp.model.TodoCollectionItem;
+import com.dailyapp.model.User;
+import com.dailyapp.repository.TodoCollectionItemRepository;
+import com.dailyapp.repository.TodoCollectionRepository;
+import com.dailyapp.repository.UserRepository;
+import com.dailyapp.service.TodoCollectionService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次典型的合集序列模式操作：打开合集、开始序列，逐个查看子任务、完成并切换到下一个
+ * 对比开启和关闭 Hibernate 二级缓存时的耗时，结束时打印平均每次会话执行的 SQL 条数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SequenceSessionBenchmark {
+
+    private static final int ITEM_COUNT = 5;
+
+    @Param({"true", "false"})
+    public boolean secondLevelCache;
+
+    private ConfigurableApplicationContext context;
+    private TodoCollectionService todoCollectionService;
+    private TodoCollectionRepository todoCollectionRepository;
+    private TodoCollectionItemRepository todoCollectionItemRepository;
+    private Statistics statistics;
+    private Long userId;
+    private Long collectionId;
+    private List<TodoCollectionItem> items;
+    private long statements;
+    private long sessions;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(DailyAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run("--spring.profiles.active=benchmark",
+                        "--spring.datasource.url=jdbc:h2:mem:sequence;DB_CLOSE_DELAY=-1",
+                        "--spring.sql.init.mode=never",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache,
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.dailyapp=WARN",
+                        "--logging.level.org.springframework.security=WARN");
+        todoCollectionService = context.getBean(TodoCollectionService.class);
+        todoCollectionRepository = context.getBean(TodoCollectionRepository.class);
+        todoCollectionItemRepository = context.getBean(TodoCollectionItemRepository.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        User user = BenchmarkFixtures.user();
+        user.setId(null);
+        userId = context.getBean(UserRepository.class).save(user).getId();
+
+        TodoCollectionRequest request = new TodoCollectionRequest();
+        request.setTitle("序列合集");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            TodoCollectionRequest.TodoCollectionItemRequest itemRequest = new TodoCollectionRequest.TodoCollectionItemRequest();
+            itemRequest.setTitle("子任务 " + i);
+            itemRequest.setDurationMinutes(25);
+            request.getItems().add(itemRequest);
+        }
+        collectionId = todoCollectionService.createTodoCollection(userId, request).getId();
+        items = todoCollectionItemRepository.findByCollectionIdOrderByOrderIndexAsc(collectionId);
+    }
+
+    // 每次会话前把合集恢复为未开始、子任务未完成
+    @Setup(Level.Invocation)
+    public void resetCollection() {
+        for (TodoCollectionItem item : items) {
+            item.markIncomplete();
+        }
+        items = todoCollectionItemRepository.saveAll(items);
+        TodoCollection collection = todoCollectionRepository.findById(collectionId).orElseThrow(IllegalStateException::new);
+        collection.setIsSequenceActive(false);
+        collection.setCurrentTaskIndex(-1);
+        collection.setCompletedTime(null);
+        todoCollectionRepository.save(collection);
+    }
+
+    @Benchmark
+    public SequenceResponse sequenceSession() {
+        long before = statistics.getPrepareStatementCount();
+
+        todoCollectionService.getTodoCollectionByIdAndUserId(collectionId, userId);
+        todoCollectionService.getCollectionItems(userId, collectionId);
+        SequenceResponse sequence = todoCollectionService.startSequence(userId, collectionId, null);
+        for (TodoCollectionItem item : items) {
+            todoCollectionService.getCollectionItems(userId, collectionId);
+            todoCollectionService.toggleCollectionItemStatus(userId, collectionId, item.getId());
+            sequence = todoCollectionService.nextTaskInSequence(userId, collectionId, sequence.getCurrentTaskIndex());
+        }
+
+        statements += statistics.getPrepareStatementCount() - before;
+        sessions++;
+        return sequence;
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n二级缓存%s：平均每次会话执行 %.1f 条 SQL（共 %d 次会话）%n",
+                secondLevelCache ? "开启" : "关闭", (double) statements / sessions, sessions);
+        context.close();
+    }
+}
@@ -0,0 +1,59 @@
+package com.dailyapp.benchmark;
+
+import com.dailyapp.dto.FocusSessionResponse;
+import com.dailyapp.model.TodoCollection;
+import com.dailyapp.model.TodoItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 列表接口返回体的 Jackson 序列化耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"20", "100", "1000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<TodoItem> todoItems;
+    private List<FocusSessionResponse> focusSessions;
+    private List<TodoCollection> todoCollections;
+
+    @Setup
+    public void setUp() {
+        // 与 Spring Boot 默认配置一致：注册 Java 8 时间模块，日期输出为字符串
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        todoItems = BenchmarkFixtures.todoItems(size);
+        // 专注记录接口返回投影 DTO
+        focusSessions = BenchmarkFixtures.focusSessions(size, 4).stream()
+                .map(FocusSessionResponse::from)
+                .collect(Collectors.toList());
+        todoCollections = BenchmarkFixtures.todoCollections(size);
+    }
+
+    @Benchmark
+    public byte[] todoItems() throws Exception {
+        return objectMapper.writeValueAsBytes(todoItems);
+    }
+
+    @Benchmark
+    public byte[] focusSessions() throws Exception {
+        return objectMapper.writeValueAsBytes(focusSessions);
+    }
+
+    @Benchmark
+    public byte[] todoCollections() throws Exception {
+        return objectMapper.writeValueAsBytes(todoCollections);
+    }
+}
@@ -0,0 +1,87 @@
+package com.dailyapp.benchmark;
+
+import com.dailyapp.model.FocusSession;
+import com.dailyapp.util.ActivityDays;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 专注统计的内存计算部分
+ * streamAggregation 还原了早期 getStatistics 对全部专注记录做流式汇总的写法，
+ * activityBitmap 为当前基于活跃日位图的计算；数据库读取不在测量范围内
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatisticsBenchmark {
+
+    // 每天的专注次数
+    private static final int SESSIONS_PER_DAY = 4;
+
+    @Param({"1000", "10000", "100000"})
+    public int sessionCount;
+
+    private List<FocusSession> sessions;
+    private ActivityDays focusDays;
+    private LocalDate today;
+
+    @Setup
+    public void setUp() {
+        sessions = BenchmarkFixtures.focusSessions(sessionCount, SESSIONS_PER_DAY);
+        focusDays = ActivityDays.empty();
+        for (FocusSession session : sessions) {
+            focusDays.add(session.getStartTime().toLocalDate());
+        }
+        today = LocalDate.now();
+    }
+
+    @Benchmark
+    public void streamAggregation(Blackhole blackhole) {
+        LocalDate weekStart = today.minusDays(today.getDayOfWeek().getValue() - 1);
+        LocalDate monthStart = today.withDayOfMonth(1);
+
+        blackhole.consume(sessions.stream().mapToInt(FocusSession::getDurationMinutes).sum());
+        blackhole.consume(sessions.size());
+        blackhole.consume(sumBetween(today, today.plusDays(1)));
+        blackhole.consume(sumBetween(weekStart, weekStart.plusWeeks(1)));
+        blackhole.consume(sumBetween(monthStart, monthStart.plusMonths(1)));
+
+        // 早期实现分别为连续天数和总天数各构建一次日期集合
+        Set<LocalDate> focusDates = sessions.stream()
+                .map(session -> session.getStartTime().toLocalDate())
+                .collect(Collectors.toSet());
+        int continuousDays = 0;
+        for (LocalDate date = today; focusDates.contains(date); date = date.minusDays(1)) {
+            continuousDays++;
+        }
+        blackhole.consume(continuousDays);
+        blackhole.consume(sessions.stream()
+                .map(session -> session.getStartTime().toLocalDate())
+                .collect(Collectors.toSet())
+                .size());
+    }
+
+    @Benchmark
+    public void activityBitmap(Blackhole blackhole) {
+        blackhole.consume(focusDays.streakEndingAt(today));
+        blackhole.consume(focusDays.longestStreak());
+        blackhole.consume(focusDays.totalDays());
+    }
+
+    private int sumBetween(LocalDate start, LocalDate end) {
+        return sessions.stream()
+                .filter(session -> !session.getStartTime().toLocalDate().isBefore(start)
+                        && session.getStartTime().toLocalDate().isBefore(end))
+                .mapToInt(FocusSession::getDurationMinutes)
+                .sum();
+    }
+}
@@ -0,0 +1,111 @@
+package com.dailyapp.benchmark;
+
+import com.dailyapp.DailyAppApplication;
+import com.dailyapp.dto.TodoItemRequest;
+import com.dailyapp.model.User;
+import com.dailyapp.repository.UserRepository;
+import com.dailyapp.service.TodoItemService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次提交 itemCount 条待办：批量接口（单事务、JDBC 批次插入）对比逐条调用创建接口
+ * 结果为每秒调用次数，乘以 itemCount 即每秒写入条数；结束时打印平均每次调用由 Hibernate 预编译的 SQL 条数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoBatchBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int itemCount;
+
+    @Param({"batch", "single"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private TodoItemService todoItemService;
+    private JdbcTemplate jdbcTemplate;
+    private Statistics statistics;
+    private Long userId;
+    private List<TodoItemRequest> requests;
+    private long statements;
+    private long calls;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(DailyAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run("--spring.profiles.active=benchmark",
+                        "--spring.datasource.url=jdbc:h2:mem:batch;DB_CLOSE_DELAY=-1",
+                        "--spring.sql.init.mode=never",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.dailyapp=WARN",
+                        "--logging.level.org.springframework.security=WARN");
+        todoItemService = context.getBean(TodoItemService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        User user = BenchmarkFixtures.user();
+        user.setId(null);
+        userId = context.getBean(UserRepository.class).save(user).getId();
+
+        requests = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            TodoItemRequest request = new TodoItemRequest();
+            request.setTitle("导入待办 " + i);
+            request.setDescription("批量导入的待办事项");
+            request.setType("DAILY");
+            request.setDuration(25);
+            requests.add(request);
+        }
+    }
+
+    // 每轮清空，避免表不断增大影响后续轮次
+    @Setup(Level.Iteration)
+    public void clear() {
+        jdbcTemplate.update("DELETE FROM todo_items");
+        jdbcTemplate.update("DELETE FROM change_log");
+    }
+
+    @Benchmark
+    public Object saveTodoItems() {
+        long before = statistics.getPrepareStatementCount();
+        Object result;
+        if ("batch".equals(mode)) {
+            result = todoItemService.saveTodoItems(userId, requests);
+        } else {
+            List<Object> items = new ArrayList<>(itemCount);
+            for (TodoItemRequest request : requests) {
+                items.add(todoItemService.createTodoItem(userId, request));
+            }
+            result = items;
+        }
+        statements += statistics.getPrepareStatementCount() - before;
+        calls++;
+        return result;
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n%s 模式，每次 %d 条：平均每次调用预编译 %.1f 条 SQL（共 %d 次调用）%n",
+                mode, itemCount, (double) statements / calls, calls);
+        context.close();
+    }
+}
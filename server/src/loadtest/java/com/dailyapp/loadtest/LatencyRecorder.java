@@ -0,0 +1,79 @@
+package com.dailyapp.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 按接口记录请求耗时，每个客户端线程各持有一个，结束后合并
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> samples = new TreeMap<>();
+
+    void record(String endpoint, long nanos, boolean success) {
+        Samples endpointSamples = samples.computeIfAbsent(endpoint, key -> new Samples());
+        endpointSamples.add(nanos);
+        if (!success) {
+            endpointSamples.errors++;
+        }
+    }
+
+    void mergeFrom(LatencyRecorder other) {
+        for (Map.Entry<String, Samples> entry : other.samples.entrySet()) {
+            samples.computeIfAbsent(entry.getKey(), key -> new Samples()).addAll(entry.getValue());
+        }
+    }
+
+    Map<String, Samples> getSamples() {
+        return samples;
+    }
+
+    static class Samples {
+        private long[] values = new long[1024];
+        private int size;
+        private long errors;
+        private boolean sorted;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+            sorted = false;
+        }
+
+        void addAll(Samples other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+            errors += other.errors;
+            sorted = false;
+        }
+
+        int count() {
+            return size;
+        }
+
+        long errors() {
+            return errors;
+        }
+
+        /**
+         * 取百分位耗时（毫秒），最近秩法
+         */
+        double percentileMillis(double percentile) {
+            if (size == 0) {
+                return 0;
+            }
+            if (!sorted) {
+                Arrays.sort(values, 0, size);
+                sorted = true;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * size);
+            return values[Math.max(rank, 1) - 1] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.dailyapp.loadtest;
+
+import com.dailyapp.loadtest.LoadTestSeeder.SeededUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 一个并发客户端，以某个预置用户身份发请求并记录耗时
+ */
+class LoadTestClient {
+
+    static final String LOGIN = "POST /auth/login";
+    static final String LIST_TODOS = "GET /todos";
+    static final String TOGGLE_TODO = "PATCH /todos/{id}/toggle";
+    static final String CREATE_SESSION = "POST /sessions";
+    static final String STATISTICS = "GET /sessions/statistics";
+    static final String CHECK_IN = "POST /check-in";
+    // 登录风暴期间完成的请求单独统计
+    static final String BURST_SUFFIX = " [burst]";
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final SeededUser user;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private String token;
+
+    // 只记录统计窗口内完成的请求
+    private volatile long recordFrom = Long.MAX_VALUE;
+    private volatile long recordUntil = Long.MAX_VALUE;
+    private volatile long burstFrom = Long.MAX_VALUE;
+    private volatile long burstUntil = Long.MAX_VALUE;
+
+    LoadTestClient(HttpClient httpClient, ObjectMapper objectMapper, String baseUrl, SeededUser user) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.user = user;
+    }
+
+    void setWindow(long fromNanos, long untilNanos) {
+        this.recordFrom = fromNanos;
+        this.recordUntil = untilNanos;
+    }
+
+    void setBurstWindow(long fromNanos, long untilNanos) {
+        this.burstFrom = fromNanos;
+        this.burstUntil = untilNanos;
+    }
+
+    // 签到压测中同一用户的客户端共用一个令牌，避免大量登录
+    String getToken() {
+        return token;
+    }
+
+    void setToken(String token) {
+        this.token = token;
+    }
+
+    LatencyRecorder getRecorder() {
+        return recorder;
+    }
+
+    boolean login() {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("username", user.getUsername());
+        body.put("password", LoadTestSeeder.PASSWORD);
+        // 登录被拒绝（503）时保留原令牌，后续请求仍可继续
+        HttpResponse<String> response = send(LOGIN, post("/auth/login", body));
+        if (response == null || response.statusCode() != 200) {
+            return false;
+        }
+        try {
+            token = objectMapper.readTree(response.body()).get("token").asText();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    void listTodos() {
+        send(LIST_TODOS, request("/todos").GET().build());
+    }
+
+    void toggleTodo() {
+        long[] todoIds = user.getTodoIds();
+        if (todoIds.length == 0) {
+            listTodos();
+            return;
+        }
+        long todoId = todoIds[ThreadLocalRandom.current().nextInt(todoIds.length)];
+        send(TOGGLE_TODO, request("/todos/" + todoId + "/toggle")
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build());
+    }
+
+    void createSession() {
+        LocalDateTime end = LocalDateTime.now();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("startTime", end.minusMinutes(25).format(DATE_TIME_FORMATTER));
+        body.put("endTime", end.format(DATE_TIME_FORMATTER));
+        body.put("durationMinutes", 25);
+        body.put("taskDescription", "压测专注");
+        send(CREATE_SESSION, post("/sessions", body));
+    }
+
+    void statistics() {
+        send(STATISTICS, request("/sessions/statistics").GET().build());
+    }
+
+    /**
+     * 签到，返回状态码（连接失败时为 -1）；重复签到返回 409 是预期结果，不计为错误
+     */
+    int checkIn() {
+        HttpResponse<String> response = send(CHECK_IN, request("/check-in")
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(), 409);
+        return response != null ? response.statusCode() : -1;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            return request(path)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest request) {
+        return send(endpoint, request, -1);
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest request, int expectedErrorStatus) {
+        long start = System.nanoTime();
+        HttpResponse<String> response = null;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            // 连接失败按错误计入
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        long end = System.nanoTime();
+        if (end >= recordFrom && end < recordUntil) {
+            boolean success = response != null
+                    && (response.statusCode() < 400 || response.statusCode() == expectedErrorStatus);
+            boolean inBurst = end >= burstFrom && end < burstUntil;
+            recorder.record(inBurst ? endpoint + BURST_SUFFIX : endpoint, end - start, success);
+        }
+        return response;
+    }
+}
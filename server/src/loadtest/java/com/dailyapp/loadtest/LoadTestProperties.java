@@ -0,0 +1,64 @@
+package com.dailyapp.loadtest;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * 压测参数，通过 --loadtest.xxx=... 命令行参数覆盖
+ */
+@Data
+public class LoadTestProperties {
+
+    // 压测场景：mixed 为按权重混合请求；check-in 为同一用户大量并发签到，逐个用户轮流进行
+    private String scenario = "mixed";
+
+    // 预置用户数
+    private int users = 50;
+
+    // 每个用户预置的待办数
+    private int todosPerUser = 100;
+
+    // 每个用户预置的专注记录数，每天4条往前排
+    private int sessionsPerUser = 200;
+
+    // 并发客户端数，客户端按序号轮流对应预置用户
+    private int clients = 64;
+
+    // 预热时长，期间的请求不计入结果
+    private Duration warmup = Duration.ofSeconds(10);
+
+    // 统计时长
+    private Duration duration = Duration.ofSeconds(30);
+
+    // 登录风暴：统计窗口内另外启动的只循环登录的客户端数，0 表示不开启
+    private int burstClients = 0;
+
+    // 登录风暴相对统计窗口开始的时间和持续时长
+    private Duration burstStart = Duration.ofSeconds(10);
+    private Duration burstDuration = Duration.ofSeconds(10);
+
+    // 结果另存为 JSON 的路径，为空则只打印
+    private String report;
+
+    // 结束后保留临时数据库目录
+    private boolean keepData = false;
+
+    private Mix mix = new Mix();
+
+    /**
+     * 各类请求的权重
+     */
+    @Data
+    public static class Mix {
+        private int login = 2;
+        private int listTodos = 40;
+        private int toggleTodo = 20;
+        private int createSession = 13;
+        private int statistics = 25;
+
+        public int total() {
+            return login + listTodos + toggleTodo + createSession + statistics;
+        }
+    }
+}
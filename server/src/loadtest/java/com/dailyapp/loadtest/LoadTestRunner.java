@@ -0,0 +1,358 @@
+package com.dailyapp.loadtest;
+
+import com.dailyapp.DailyAppApplication;
+import com.dailyapp.loadtest.LatencyRecorder.Samples;
+import com.dailyapp.loadtest.LoadTestSeeder.SeededUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内 HTTP 压测
+ * 在随机端口启动应用，使用临时 H2 文件库，预置数据后由多个并发客户端按权重混合发请求，
+ * 输出各接口的请求数、错误数、RPS 和 p50/p99/p999 耗时
+ * check-in 场景（--loadtest.scenario=check-in）改为逐个用户进行并发签到，校验每个用户当天只写入一条记录
+ * 开启登录风暴（--loadtest.burst-clients）后，风暴期间完成的请求以 [burst] 后缀单独统计，用于对比登录风暴对其他接口的影响
+ *
+ * 用法：mvn -Ploadtest verify -Dloadtest.args="--loadtest.clients=128 --loadtest.duration=60s"
+ */
+public final class LoadTestRunner {
+
+    private static final String CHECK_IN_SCENARIO = "check-in";
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dataDir = Files.createTempDirectory("dailyapp-loadtest");
+        // 系统属性优先级高于配置文件，命令行参数仍可覆盖
+        setDefault("spring.profiles.active", "loadtest");
+        setDefault("server.port", "0");
+        setDefault("spring.datasource.url",
+                "jdbc:h2:file:" + dataDir.resolve("dailydb").toAbsolutePath() + ";DB_CLOSE_ON_EXIT=FALSE");
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DailyAppApplication.class).run(args);
+        LoadTestProperties properties = Binder.get(context.getEnvironment())
+                .bind("loadtest", Bindable.ofInstance(new LoadTestProperties()))
+                .orElseGet(LoadTestProperties::new);
+        // 签到压测只需要用户
+        if (CHECK_IN_SCENARIO.equals(properties.getScenario())) {
+            properties.setTodosPerUser(0);
+            properties.setSessionsPerUser(0);
+        }
+        int exitCode = 0;
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://127.0.0.1:" + port
+                    + context.getEnvironment().getProperty("server.servlet.context-path", "");
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+
+            long seedStart = System.nanoTime();
+            List<SeededUser> users = new LoadTestSeeder(context).seed(properties);
+            System.out.printf("预置数据完成：%d 个用户，每人 %d 条待办、%d 条专注记录，耗时 %d ms%n",
+                    users.size(), properties.getTodosPerUser(), properties.getSessionsPerUser(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+            Map<String, Object> report;
+            if (CHECK_IN_SCENARIO.equals(properties.getScenario())) {
+                report = runCheckIn(properties, users, baseUrl, objectMapper, context.getBean(JdbcTemplate.class));
+            } else {
+                report = printReport(runMixed(properties, users, baseUrl, objectMapper), properties);
+            }
+            if (properties.getReport() != null && !properties.getReport().isEmpty()) {
+                objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(properties.getReport()), report);
+                System.out.println("结果已写入 " + properties.getReport());
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 1;
+        } finally {
+            context.close();
+            if (!properties.isKeepData()) {
+                FileSystemUtils.deleteRecursively(dataDir);
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static LatencyRecorder runMixed(LoadTestProperties properties, List<SeededUser> users,
+                                            String baseUrl, ObjectMapper objectMapper) throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        LoadTestProperties.Mix mix = properties.getMix();
+
+        List<LoadTestClient> clients = new ArrayList<>(properties.getClients());
+        for (int i = 0; i < properties.getClients(); i++) {
+            clients.add(new LoadTestClient(httpClient, objectMapper, baseUrl, users.get(i % users.size())));
+        }
+
+        long start = System.nanoTime();
+        long measureFrom = start + properties.getWarmup().toNanos();
+        long measureUntil = measureFrom + properties.getDuration().toNanos();
+        for (LoadTestClient client : clients) {
+            client.setWindow(measureFrom, measureUntil);
+        }
+        System.out.printf("开始压测：%d 个客户端，预热 %ds，统计 %ds%n", clients.size(),
+                properties.getWarmup().getSeconds(), properties.getDuration().getSeconds());
+
+        // 登录风暴客户端在风暴开始前空闲，风暴期间只循环登录
+        List<LoadTestClient> burstClients = new ArrayList<>(properties.getBurstClients());
+        long burstFrom = measureFrom + properties.getBurstStart().toNanos();
+        long burstUntil = Math.min(burstFrom + properties.getBurstDuration().toNanos(), measureUntil);
+        if (properties.getBurstClients() > 0) {
+            for (int i = 0; i < properties.getBurstClients(); i++) {
+                burstClients.add(new LoadTestClient(httpClient, objectMapper, baseUrl, users.get(i % users.size())));
+            }
+            for (LoadTestClient client : clients) {
+                client.setBurstWindow(burstFrom, burstUntil);
+            }
+            for (LoadTestClient client : burstClients) {
+                client.setWindow(measureFrom, measureUntil);
+                client.setBurstWindow(burstFrom, burstUntil);
+            }
+            System.out.printf("登录风暴：%d 个客户端，统计开始后第 %ds 起持续 %ds%n", burstClients.size(),
+                    properties.getBurstStart().getSeconds(), properties.getBurstDuration().getSeconds());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients.size() + burstClients.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (LoadTestClient client : clients) {
+                futures.add(executor.submit(() -> {
+                    // 登录被拒绝（503）时稍后重试
+                    while (!client.login() && System.nanoTime() < measureUntil) {
+                        TimeUnit.MILLISECONDS.sleep(200);
+                    }
+                    while (System.nanoTime() < measureUntil) {
+                        nextRequest(client, mix);
+                    }
+                    return null;
+                }));
+            }
+            for (LoadTestClient client : burstClients) {
+                futures.add(executor.submit(() -> {
+                    TimeUnit.NANOSECONDS.sleep(burstFrom - System.nanoTime());
+                    while (System.nanoTime() < burstUntil) {
+                        client.login();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        LatencyRecorder merged = new LatencyRecorder();
+        for (LoadTestClient client : clients) {
+            merged.mergeFrom(client.getRecorder());
+        }
+        for (LoadTestClient client : burstClients) {
+            merged.mergeFrom(client.getRecorder());
+        }
+        return merged;
+    }
+
+    /**
+     * 每个预置用户一轮：clients 个客户端同时为该用户签到
+     * 校验每轮只有一次成功、当天只写入一行，且连续天数由昨天的记录加一；RPS 按各轮从放行到全部返回的耗时计算
+     */
+    private static Map<String, Object> runCheckIn(LoadTestProperties properties, List<SeededUser> users,
+                                                  String baseUrl, ObjectMapper objectMapper,
+                                                  JdbcTemplate jdbcTemplate) throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        LocalDate today = LocalDate.now();
+
+        // 偶数序号的用户昨天已连续签到 3 天，今天签到后应为 4 天
+        for (int i = 0; i < users.size(); i += 2) {
+            jdbcTemplate.update("INSERT INTO check_ins (user_id, date, time, streak_count, created_at, version) "
+                            + "VALUES (?, ?, ?, 3, ?, 0)",
+                    users.get(i).getId(), today.minusDays(1), LocalTime.NOON, LocalDateTime.now());
+        }
+        System.out.printf("开始签到压测：%d 轮，每轮 %d 个客户端同时为同一用户签到%n", users.size(), properties.getClients());
+
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getClients());
+        LatencyRecorder recorder = new LatencyRecorder();
+        Map<Integer, Integer> statusCounts = new TreeMap<>();
+        List<String> violations = new ArrayList<>();
+        long elapsedNanos = 0;
+        try {
+            for (int round = 0; round < users.size(); round++) {
+                SeededUser user = users.get(round);
+                List<LoadTestClient> clients = new ArrayList<>(properties.getClients());
+                for (int i = 0; i < properties.getClients(); i++) {
+                    clients.add(new LoadTestClient(httpClient, objectMapper, baseUrl, user));
+                }
+                LoadTestClient first = clients.get(0);
+                while (!first.login()) {
+                    TimeUnit.MILLISECONDS.sleep(200);
+                }
+                for (LoadTestClient client : clients) {
+                    client.setToken(first.getToken());
+                    client.setWindow(0, Long.MAX_VALUE);
+                }
+
+                // 所有客户端就绪后同时放行
+                CountDownLatch ready = new CountDownLatch(clients.size());
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> futures = new ArrayList<>(clients.size());
+                for (LoadTestClient client : clients) {
+                    futures.add(executor.submit(() -> {
+                        ready.countDown();
+                        start.await();
+                        return client.checkIn();
+                    }));
+                }
+                ready.await();
+                long roundStart = System.nanoTime();
+                start.countDown();
+                int succeeded = 0;
+                for (Future<Integer> future : futures) {
+                    int status = future.get();
+                    statusCounts.merge(status, 1, Integer::sum);
+                    if (status == 200) {
+                        succeeded++;
+                    }
+                }
+                elapsedNanos += System.nanoTime() - roundStart;
+                for (LoadTestClient client : clients) {
+                    recorder.mergeFrom(client.getRecorder());
+                }
+
+                Integer rows = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM check_ins WHERE user_id = ? AND date = ?",
+                        Integer.class, user.getId(), today);
+                Integer streak = jdbcTemplate.queryForObject(
+                        "SELECT MAX(streak_count) FROM check_ins WHERE user_id = ? AND date = ?",
+                        Integer.class, user.getId(), today);
+                int expectedStreak = round % 2 == 0 ? 4 : 1;
+                if (succeeded != 1 || rows == null || rows != 1 || streak == null || streak != expectedStreak) {
+                    violations.add(String.format("%s：成功 %d 次，写入 %s 行，连续天数 %s（应为 %d）",
+                            user.getUsername(), succeeded, rows, streak, expectedStreak));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Samples samples = recorder.getSamples().get(LoadTestClient.CHECK_IN);
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        double rps = seconds > 0 ? samples.count() / seconds : 0;
+        System.out.printf("%n%-28s %10s %8s %10s %10s %10s %10s %10s%n",
+                "Endpoint", "Requests", "Errors", "RPS", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+        System.out.printf("%-28s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n", LoadTestClient.CHECK_IN,
+                samples.count(), samples.errors(), rps, samples.percentileMillis(50), samples.percentileMillis(99),
+                samples.percentileMillis(99.9), samples.percentileMillis(100));
+        System.out.println("状态码分布（-1 为连接失败）：" + statusCounts);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("rounds", users.size());
+        report.put("clients", properties.getClients());
+        report.put("requests", samples.count());
+        report.put("errors", samples.errors());
+        report.put("rps", rps);
+        report.put("p50", samples.percentileMillis(50));
+        report.put("p99", samples.percentileMillis(99));
+        report.put("p999", samples.percentileMillis(99.9));
+        report.put("max", samples.percentileMillis(100));
+        report.put("statusCounts", statusCounts);
+        report.put("violations", violations);
+        if (!violations.isEmpty()) {
+            violations.forEach(System.out::println);
+            throw new IllegalStateException("签到校验失败：" + violations.size() + " 轮");
+        }
+        System.out.println("校验通过：每轮只有一次签到成功，当天只写入一行，连续天数正确");
+        return report;
+    }
+
+    // 按权重随机选择下一个请求
+    private static void nextRequest(LoadTestClient client, LoadTestProperties.Mix mix) {
+        int pick = ThreadLocalRandom.current().nextInt(mix.total());
+        if ((pick -= mix.getLogin()) < 0) {
+            client.login();
+        } else if ((pick -= mix.getListTodos()) < 0) {
+            client.listTodos();
+        } else if ((pick -= mix.getToggleTodo()) < 0) {
+            client.toggleTodo();
+        } else if ((pick -= mix.getCreateSession()) < 0) {
+            client.createSession();
+        } else {
+            client.statistics();
+        }
+    }
+
+    private static Map<String, Object> printReport(LatencyRecorder recorder, LoadTestProperties properties) {
+        double seconds = properties.getDuration().toNanos() / 1_000_000_000.0;
+        // 开启登录风暴时，风暴期间与其余时间的请求分别按各自时长计算 RPS
+        double burstSeconds = properties.getBurstClients() > 0
+                ? Math.min(properties.getBurstDuration().toNanos() / 1_000_000_000.0,
+                        Math.max(seconds - properties.getBurstStart().toNanos() / 1_000_000_000.0, 0))
+                : 0;
+        Map<String, Object> report = new LinkedHashMap<>();
+        long totalCount = 0;
+        long totalErrors = 0;
+
+        System.out.printf("%n%-36s %10s %8s %10s %10s %10s %10s %10s%n",
+                "Endpoint", "Requests", "Errors", "RPS", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+        for (Map.Entry<String, Samples> entry : recorder.getSamples().entrySet()) {
+            Samples samples = entry.getValue();
+            double rowSeconds = entry.getKey().endsWith(LoadTestClient.BURST_SUFFIX) ? burstSeconds : seconds - burstSeconds;
+            double rps = rowSeconds > 0 ? samples.count() / rowSeconds : 0;
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("requests", samples.count());
+            row.put("errors", samples.errors());
+            row.put("rps", rps);
+            row.put("p50", samples.percentileMillis(50));
+            row.put("p99", samples.percentileMillis(99));
+            row.put("p999", samples.percentileMillis(99.9));
+            row.put("max", samples.percentileMillis(100));
+            report.put(entry.getKey(), row);
+            totalCount += samples.count();
+            totalErrors += samples.errors();
+
+            System.out.printf("%-36s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n", entry.getKey(),
+                    samples.count(), samples.errors(), rps, samples.percentileMillis(50),
+                    samples.percentileMillis(99), samples.percentileMillis(99.9), samples.percentileMillis(100));
+        }
+        System.out.printf("%-36s %10d %8d %10.1f%n", "TOTAL", totalCount, totalErrors, totalCount / seconds);
+        return report;
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.dailyapp.loadtest;
+
+import com.dailyapp.model.FocusSession;
+import com.dailyapp.model.TodoItem;
+import com.dailyapp.model.User;
+import com.dailyapp.repository.FocusSessionRepository;
+import com.dailyapp.repository.TodoItemRepository;
+import com.dailyapp.repository.UserRepository;
+import com.dailyapp.service.ActivityService;
+import com.dailyapp.service.FocusStatsService;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 直接通过仓库写入压测数据，不经过 HTTP 接口
+ */
+class LoadTestSeeder {
+
+    static final String PASSWORD = "loadtest123";
+
+    private final UserRepository userRepository;
+    private final TodoItemRepository todoItemRepository;
+    private final FocusSessionRepository focusSessionRepository;
+    private final FocusStatsService focusStatsService;
+    private final ActivityService activityService;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+
+    LoadTestSeeder(ApplicationContext context) {
+        this.userRepository = context.getBean(UserRepository.class);
+        this.todoItemRepository = context.getBean(TodoItemRepository.class);
+        this.focusSessionRepository = context.getBean(FocusSessionRepository.class);
+        this.focusStatsService = context.getBean(FocusStatsService.class);
+        this.activityService = context.getBean(ActivityService.class);
+        this.passwordEncoder = context.getBean(PasswordEncoder.class);
+        this.transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    /**
+     * 预置用户，登录时需要的用户名和其待办ID
+     */
+    @Getter
+    @AllArgsConstructor
+    static class SeededUser {
+        private final Long id;
+        private final String username;
+        private final long[] todoIds;
+    }
+
+    List<SeededUser> seed(LoadTestProperties properties) {
+        // 所有用户共用同一个密码，只需计算一次哈希
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        List<SeededUser> users = new ArrayList<>(properties.getUsers());
+        for (int i = 0; i < properties.getUsers(); i++) {
+            String username = "lt-user-" + i;
+            SeededUser seeded = transactionTemplate.execute(status ->
+                    seedUser(username, passwordHash, properties.getTodosPerUser(), properties.getSessionsPerUser()));
+            // 汇总和位图按用户各自一个事务重建
+            focusStatsService.rebuildUser(seeded.getId());
+            activityService.rebuildUser(seeded.getId());
+            users.add(seeded);
+        }
+        return users;
+    }
+
+    private SeededUser seedUser(String username, String passwordHash, int todoCount, int sessionCount) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(passwordHash);
+        userRepository.save(user);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<TodoItem> todos = new ArrayList<>(todoCount);
+        for (int i = 0; i < todoCount; i++) {
+            TodoItem todo = new TodoItem();
+            todo.setUserId(user.getId());
+            todo.setTitle("压测待办 " + i);
+            todo.setDescription("压测数据");
+            todo.setType(i % 2 == 0 ? "work" : "study");
+            todo.setDuration(25);
+            todo.setIsCompleted(i % 3 == 0);
+            todo.setIsImportant(i % 4 == 0);
+            todo.setIsUrgent(i % 5 == 0);
+            todo.setCreateTime(now.minusMinutes(todoCount - i));
+            todos.add(todo);
+        }
+        todoItemRepository.saveAll(todos);
+
+        LocalDate today = LocalDate.now();
+        List<FocusSession> sessions = new ArrayList<>(sessionCount);
+        for (int i = 0; i < sessionCount; i++) {
+            LocalDateTime start = today.minusDays(i / 4).atTime(8 + i % 4 * 2, 0);
+            FocusSession session = new FocusSession();
+            session.setUser(user);
+            session.setStartTime(start);
+            session.setEndTime(start.plusMinutes(25));
+            session.setDurationMinutes(25);
+            session.setTaskDescription("压测专注 " + i);
+            sessions.add(session);
+        }
+        focusSessionRepository.saveAll(sessions);
+
+        long[] todoIds = todos.stream().mapToLong(TodoItem::getId).toArray();
+        return new SeededUser(user.getId(), username, todoIds);
+    }
+}
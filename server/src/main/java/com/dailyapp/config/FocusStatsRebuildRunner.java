@@ -0,0 +1,42 @@
+package com.dailyapp.config;
+
+import com.dailyapp.repository.UserRepository;
+import com.dailyapp.service.ActivityService;
+import com.dailyapp.service.FocusStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 专注统计汇总重建命令
+ * 启动时加上 --rebuild-focus-stats 参数，根据已有专注和签到记录重建所有用户的统计汇总和活跃日位图
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FocusStatsRebuildRunner implements ApplicationRunner {
+
+    private static final String REBUILD_OPTION = "rebuild-focus-stats";
+
+    private final UserRepository userRepository;
+    private final FocusStatsService focusStatsService;
+    private final ActivityService activityService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(REBUILD_OPTION)) {
+            return;
+        }
+
+        int rebuilt = 0;
+        for (Long userId : userRepository.findAllIds()) {
+            // 每个用户单独一个事务，避免长事务
+            focusStatsService.rebuildUser(userId);
+            activityService.rebuildUser(userId);
+            rebuilt++;
+        }
+        log.info("专注统计汇总重建完成，共 {} 个用户", rebuilt);
+    }
+}
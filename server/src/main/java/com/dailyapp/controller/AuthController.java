@@ -2,12 +2,16 @@ package com.dailyapp.controller;
 
 import com.dailyapp.dto.AuthRequest;
 import com.dailyapp.dto.AuthResponse;
+import com.dailyapp.dto.RefreshTokenRequest;
 import com.dailyapp.service.AuthService;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
@@ -15,18 +19,30 @@ public class AuthController {
 
     private final AuthService authService;
 
+    // 注册、登录在认证线程池上执行，请求线程立即释放；线程池已满时返回 503
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> register(@Valid @RequestBody AuthRequest request) {
-        return ResponseEntity.ok(authService.register(request));
+    public CompletableFuture<ResponseEntity<AuthResponse>> register(@Valid @RequestBody AuthRequest request) {
+        return authService.registerAsync(request).thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request) {
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@Valid @RequestBody AuthRequest request) {
+        return authService.loginAsync(request)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    // 登录失败，返回 401 状态码，并返回错误信息
+                    return ResponseEntity.status(401).body(new AuthResponse(null, cause.getMessage(), null));
+                });
+    }
+
+    // 用刷新令牌续期，不需要重新输入密码
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
         try {
-            return ResponseEntity.ok(authService.login(request));
-        } catch (Exception e) {
-            // 登录失败，返回 401 状态码，并返回错误信息
-            return ResponseEntity.status(401).body(new AuthResponse(null, e.getMessage()));
+            return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(401).body(new AuthResponse(null, e.getMessage(), null));
         }
     }
-} 
\ No newline at end of file
+}
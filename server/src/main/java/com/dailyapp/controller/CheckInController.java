@@ -1,12 +1,11 @@
 package com.dailyapp.controller;
 
-import com.dailyapp.model.CheckIn;
-import com.dailyapp.model.User;
-import com.dailyapp.repository.UserRepository;
+import com.dailyapp.dto.CheckInResponse;
+import com.dailyapp.dto.CheckInSummaryResponse;
+import com.dailyapp.security.CurrentUserId;
 import com.dailyapp.service.CheckInService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -15,30 +14,24 @@ import org.springframework.web.bind.annotation.*;
 public class CheckInController {
 
     private final CheckInService checkInService;
-    private final UserRepository userRepository;
 
     @PostMapping
-    public ResponseEntity<CheckIn> checkIn(Authentication authentication) {
-        Long userId = getUserIdFromAuthentication(authentication);
+    public ResponseEntity<CheckInResponse> checkIn(@CurrentUserId Long userId) {
         return ResponseEntity.ok(checkInService.checkIn(userId));
     }
 
     @GetMapping("/streak")
-    public ResponseEntity<Integer> getCurrentStreak(Authentication authentication) {
-        Long userId = getUserIdFromAuthentication(authentication);
+    public ResponseEntity<Integer> getCurrentStreak(@CurrentUserId Long userId) {
         return ResponseEntity.ok(checkInService.getCurrentStreak(userId));
     }
 
-    @GetMapping("/today")
-    public ResponseEntity<Boolean> hasCheckedInToday(Authentication authentication) {
-        Long userId = getUserIdFromAuthentication(authentication);
-        return ResponseEntity.ok(checkInService.hasCheckedInToday(userId));
+    @GetMapping("/summary")
+    public ResponseEntity<CheckInSummaryResponse> getSummary(@CurrentUserId Long userId) {
+        return ResponseEntity.ok(checkInService.getSummary(userId));
     }
 
-    private Long getUserIdFromAuthentication(Authentication authentication) {
-        String username = authentication.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("用户不存在"));
-        return user.getId();
+    @GetMapping("/today")
+    public ResponseEntity<Boolean> hasCheckedInToday(@CurrentUserId Long userId) {
+        return ResponseEntity.ok(checkInService.hasCheckedInToday(userId));
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
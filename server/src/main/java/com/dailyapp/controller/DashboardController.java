@@ -0,0 +1,33 @@
+package com.dailyapp.controller;
+
+import com.dailyapp.dto.DashboardResponse;
+import com.dailyapp.security.CurrentUserId;
+import com.dailyapp.service.DashboardService;
+import com.dailyapp.service.DataVersionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+    private final DataVersionService dataVersionService;
+
+    // 首页所需数据一次返回，数据未变化时直接返回 304，不查询
+    @GetMapping
+    public ResponseEntity<DashboardResponse> getDashboard(@CurrentUserId Long userId, WebRequest webRequest) {
+        String etag = dataVersionService.etag(userId, LocalDate.now());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(dashboardService.getDashboard(userId));
+    }
+}
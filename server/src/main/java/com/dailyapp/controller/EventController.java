@@ -0,0 +1,30 @@
+package com.dailyapp.controller;
+
+import com.dailyapp.security.CurrentUserId;
+import com.dailyapp.service.EventStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/events")
+@RequiredArgsConstructor
+public class EventController {
+
+    private final EventStreamService eventStreamService;
+
+    // 订阅当前用户的数据变更，代替轮询
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(@CurrentUserId Long userId) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                // 关闭 Nginx 响应缓冲，事件立即送达客户端
+                .header("X-Accel-Buffering", "no")
+                .body(eventStreamService.subscribe(userId));
+    }
+}
@@ -0,0 +1,35 @@
+package com.dailyapp.controller;
+
+import com.dailyapp.security.CurrentUserId;
+import com.dailyapp.service.ExportService;
+import com.dailyapp.service.ExportService.ExportFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+
+    // 导出待办、合集及子任务、专注记录和签到，边查询边写出
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(
+            @CurrentUserId Long userId,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        MediaType contentType = MediaType.parseMediaType(exportFormat.getContentType());
+        String filename = "dailyapp-export." + exportFormat.getExtension();
+
+        StreamingResponseBody body = outputStream -> exportService.export(userId, exportFormat, outputStream);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+}
@@ -1,18 +1,22 @@
 package com.dailyapp.controller;
 
+import com.dailyapp.dto.CursorPage;
+import com.dailyapp.dto.FocusHistogramResponse;
+import com.dailyapp.dto.FocusHistogramResponse.Granularity;
 import com.dailyapp.dto.FocusSessionRequest;
+import com.dailyapp.dto.FocusSessionResponse;
 import com.dailyapp.dto.StatisticsResponse;
-import com.dailyapp.model.FocusSession;
-import com.dailyapp.model.User;
-import com.dailyapp.repository.UserRepository;
+import com.dailyapp.security.CurrentUserId;
 import com.dailyapp.service.FocusSessionService;
+import com.dailyapp.service.FocusStatsService;
 import com.dailyapp.service.CheckInService;
+import com.dailyapp.service.DataVersionService;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -23,100 +27,69 @@ import java.util.List;
 public class FocusSessionController {
 
     private final FocusSessionService focusSessionService;
+    private final FocusStatsService focusStatsService;
     private final CheckInService checkInService;
-    private final UserRepository userRepository;
+    private final DataVersionService dataVersionService;
 
     @PostMapping
-    public ResponseEntity<FocusSession> createSession(
-            Authentication authentication,
+    public ResponseEntity<FocusSessionResponse> createSession(
+            @CurrentUserId Long userId,
             @Valid @RequestBody FocusSessionRequest request) {
-        Long userId = getUserIdFromAuthentication(authentication);
         return ResponseEntity.ok(focusSessionService.createSession(userId, request));
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<FocusSessionResponse>> getSessionsPage(
+            @CurrentUserId Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(focusSessionService.getSessionsPage(userId, cursor, size));
+    }
+
     @GetMapping("/daily")
-    public ResponseEntity<List<FocusSession>> getDailySessions(
-            Authentication authentication,
+    public ResponseEntity<List<FocusSessionResponse>> getDailySessions(
+            @CurrentUserId Long userId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        Long userId = getUserIdFromAuthentication(authentication);
         return ResponseEntity.ok(focusSessionService.getDailySessions(userId, date));
     }
 
     @GetMapping("/weekly")
-    public ResponseEntity<List<FocusSession>> getWeeklySessions(
-            Authentication authentication,
+    public ResponseEntity<List<FocusSessionResponse>> getWeeklySessions(
+            @CurrentUserId Long userId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate weekStart) {
-        Long userId = getUserIdFromAuthentication(authentication);
         return ResponseEntity.ok(focusSessionService.getWeeklySessions(userId, weekStart));
     }
 
     @GetMapping("/monthly")
-    public ResponseEntity<List<FocusSession>> getMonthlySessions(
-            Authentication authentication,
+    public ResponseEntity<List<FocusSessionResponse>> getMonthlySessions(
+            @CurrentUserId Long userId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate monthStart) {
-        Long userId = getUserIdFromAuthentication(authentication);
         return ResponseEntity.ok(focusSessionService.getMonthlySessions(userId, monthStart));
     }
 
+    @GetMapping("/histogram")
+    public ResponseEntity<FocusHistogramResponse> getHistogram(
+            @CurrentUserId Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String bucket) {
+        return ResponseEntity.ok(focusSessionService.getHistogram(userId, from, to, Granularity.of(bucket)));
+    }
+
     @GetMapping("/statistics")
-    public ResponseEntity<StatisticsResponse> getStatistics(Authentication authentication) {
-        Long userId = getUserIdFromAuthentication(authentication);
-        
-        // 获取各种统计数据
-        LocalDate today = LocalDate.now();
-        LocalDate weekStart = today.minusDays(today.getDayOfWeek().getValue() - 1);
-        LocalDate monthStart = today.withDayOfMonth(1);
-        
-        // 计算总专注时间和次数
-        List<FocusSession> allSessions = focusSessionService.getAllSessions(userId);
-        Integer totalFocusTime = allSessions.stream()
-                .mapToInt(FocusSession::getDurationMinutes)
-                .sum();
-        Integer totalFocusCount = allSessions.size();
+    public ResponseEntity<StatisticsResponse> getStatistics(@CurrentUserId Long userId, WebRequest webRequest) {
+        // 今日、本周等统计与日期有关，ETag 带上当天日期
+        String etag = dataVersionService.etag(userId, LocalDate.now());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         
-        // 计算今日专注时间
-        List<FocusSession> todaySessions = focusSessionService.getDailySessions(userId, today);
-        Integer todayFocusTime = todaySessions.stream()
-                .mapToInt(FocusSession::getDurationMinutes)
-                .sum();
-        
-        // 计算本周专注时间
-        List<FocusSession> weeklySessions = focusSessionService.getWeeklySessions(userId, weekStart);
-        Integer weeklyFocusTime = weeklySessions.stream()
-                .mapToInt(FocusSession::getDurationMinutes)
-                .sum();
-        
-        // 计算本月专注时间
-        List<FocusSession> monthlySessions = focusSessionService.getMonthlySessions(userId, monthStart);
-        Integer monthlyFocusTime = monthlySessions.stream()
-                .mapToInt(FocusSession::getDurationMinutes)
-                .sum();
+        // 专注统计来自增量维护的汇总表
+        StatisticsResponse statistics = focusStatsService.getStatistics(userId);
         
         // 获取连续打卡天数
-        Integer currentStreak = checkInService.getCurrentStreak(userId);
-        
-        // 计算连续专注天数和总专注天数
-        Integer continuousDays = focusSessionService.getContinuousFocusDays(userId);
-        Integer totalDays = focusSessionService.getTotalFocusDays(userId);
+        statistics.setCurrentStreak(checkInService.getCurrentStreak(userId));
         
-        StatisticsResponse statistics = StatisticsResponse.builder()
-                .totalFocusTime(totalFocusTime)
-                .totalFocusCount(totalFocusCount)
-                .continuousDays(continuousDays)
-                .totalDays(totalDays)
-                .todayFocusTime(todayFocusTime)
-                .weeklyFocusTime(weeklyFocusTime)
-                .monthlyFocusTime(monthlyFocusTime)
-                .currentStreak(currentStreak)
-                .build();
-        
-        return ResponseEntity.ok(statistics);
-    }
-
-    private Long getUserIdFromAuthentication(Authentication authentication) {
-        String username = authentication.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("用户不存在: " + username));
-        return user.getId();
+        return ResponseEntity.ok().eTag(etag).body(statistics);
     }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.dailyapp.controller;
+
+import com.dailyapp.dto.SyncChangesResponse;
+import com.dailyapp.security.CurrentUserId;
+import com.dailyapp.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @GetMapping("/changes")
+    public ResponseEntity<SyncChangesResponse> getChanges(
+            @CurrentUserId Long userId,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(syncService.getChanges(userId, since, limit));
+    }
+}
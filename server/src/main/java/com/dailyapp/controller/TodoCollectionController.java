@@ -1,78 +1,123 @@
 package com.dailyapp.controller;
 
+import com.dailyapp.dto.CursorPage;
+import com.dailyapp.dto.SequenceResponse;
+import com.dailyapp.dto.TodoCollectionDetailResponse;
 import com.dailyapp.dto.TodoCollectionRequest;
 import com.dailyapp.model.TodoCollection;
 import com.dailyapp.model.TodoCollectionItem;
-import com.dailyapp.model.User;
-import com.dailyapp.repository.UserRepository;
+import com.dailyapp.security.CurrentUserId;
+import com.dailyapp.service.DataVersionService;
 import com.dailyapp.service.TodoCollectionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import javax.validation.Valid;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/todo-collections")
 @RequiredArgsConstructor
 public class TodoCollectionController {
     
+    private static final Set<String> EXPAND_OPTIONS = Set.of("items", "progress");
+    
     private final TodoCollectionService todoCollectionService;
-    private final UserRepository userRepository;
+    private final DataVersionService dataVersionService;
     
     @PostMapping
     public ResponseEntity<TodoCollection> createTodoCollection(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @Valid @RequestBody TodoCollectionRequest request) {
-        Long userId = getUserIdFromAuthentication(authentication);
         TodoCollection collection = todoCollectionService.createTodoCollection(userId, request);
         return ResponseEntity.ok(collection);
     }
     
     @GetMapping
-    public ResponseEntity<List<TodoCollection>> getUserTodoCollections(Authentication authentication) {
-        Long userId = getUserIdFromAuthentication(authentication);
+    public ResponseEntity<List<TodoCollection>> getUserTodoCollections(@CurrentUserId Long userId, WebRequest webRequest) {
+        // 数据未变化时直接返回 304，不查询
+        String etag = dataVersionService.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         List<TodoCollection> collections = todoCollectionService.getUserTodoCollections(userId);
-        return ResponseEntity.ok(collections);
+        return ResponseEntity.ok().eTag(etag).body(collections);
+    }
+    
+    /**
+     * expand=items,progress：一次返回全部合集及其子任务、完成进度，客户端无需逐个请求子任务列表
+     */
+    @GetMapping(params = "expand")
+    public ResponseEntity<List<TodoCollectionDetailResponse>> getUserTodoCollectionsExpanded(
+            @CurrentUserId Long userId,
+            @RequestParam List<String> expand,
+            WebRequest webRequest) {
+        if (!EXPAND_OPTIONS.containsAll(expand)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "expand 只支持 items 和 progress");
+        }
+        // 子任务的写入同样递增数据版本，可与合集列表共用 ETag
+        String etag = dataVersionService.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<TodoCollectionDetailResponse> collections = todoCollectionService.getUserTodoCollectionsExpanded(
+                userId, expand.contains("items"), expand.contains("progress"));
+        return ResponseEntity.ok().eTag(etag).body(collections);
+    }
+    
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<TodoCollection>> getUserTodoCollectionsPage(
+            @CurrentUserId Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(todoCollectionService.getUserTodoCollectionsPage(userId, cursor, size));
     }
     
     @GetMapping("/{collectionId}")
     public ResponseEntity<TodoCollection> getTodoCollection(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @PathVariable Long collectionId) {
-        Long userId = getUserIdFromAuthentication(authentication);
         TodoCollection collection = todoCollectionService.getTodoCollectionByIdAndUserId(collectionId, userId);
         return ResponseEntity.ok(collection);
     }
     
     @GetMapping("/{collectionId}/items")
     public ResponseEntity<List<TodoCollectionItem>> getCollectionItems(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @PathVariable Long collectionId) {
-        Long userId = getUserIdFromAuthentication(authentication);
         List<TodoCollectionItem> items = todoCollectionService.getCollectionItems(userId, collectionId);
         return ResponseEntity.ok(items);
     }
     
+    // 以已有合集为模板复制一份，子任务全部重置为未完成
+    @PostMapping("/{collectionId}/clone")
+    public ResponseEntity<TodoCollection> cloneTodoCollection(
+            @CurrentUserId Long userId,
+            @PathVariable Long collectionId) {
+        TodoCollection collection = todoCollectionService.cloneTodoCollection(userId, collectionId);
+        return ResponseEntity.ok(collection);
+    }
+    
     @PutMapping("/{collectionId}")
     public ResponseEntity<TodoCollection> updateTodoCollection(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @PathVariable Long collectionId,
             @Valid @RequestBody TodoCollectionRequest request) {
-        Long userId = getUserIdFromAuthentication(authentication);
         TodoCollection collection = todoCollectionService.updateTodoCollection(userId, collectionId, request);
         return ResponseEntity.ok(collection);
     }
     
     @PostMapping("/{collectionId}/items")
     public ResponseEntity<TodoCollectionItem> addItemToCollection(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @PathVariable Long collectionId,
             @Valid @RequestBody TodoCollectionRequest.TodoCollectionItemRequest request) {
-        Long userId = getUserIdFromAuthentication(authentication);
         TodoCollectionItem item = todoCollectionService.addItemToCollection(userId, collectionId, request);
         return ResponseEntity.ok(item);
     }
@@ -80,67 +125,72 @@ public class TodoCollectionController {
     @PatchMapping("/{collectionId}/items/{itemId}/toggle")
     @PutMapping("/{collectionId}/items/{itemId}/toggle")
     public ResponseEntity<TodoCollectionItem> toggleCollectionItemStatus(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @PathVariable Long collectionId,
             @PathVariable Long itemId) {
-        Long userId = getUserIdFromAuthentication(authentication);
         TodoCollectionItem item = todoCollectionService.toggleCollectionItemStatus(userId, collectionId, itemId);
         return ResponseEntity.ok(item);
     }
     
+    @PatchMapping("/{collectionId}/items/{itemId}/focus-time")
+    @PutMapping("/{collectionId}/items/{itemId}/focus-time")
+    public ResponseEntity<TodoCollectionItem> updateItemFocusTime(
+            @CurrentUserId Long userId,
+            @PathVariable Long collectionId,
+            @PathVariable Long itemId,
+            @RequestBody Map<String, Integer> request) {
+        Integer focusTime = request.get("actualFocusTime");
+        if (focusTime == null || focusTime < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        TodoCollectionItem item = todoCollectionService.updateItemFocusTime(userId, collectionId, itemId, focusTime);
+        return ResponseEntity.ok(item);
+    }
+    
     @PatchMapping("/{collectionId}/sequence/start")
     @PutMapping("/{collectionId}/sequence/start")
-    public ResponseEntity<TodoCollection> startSequence(
-            Authentication authentication,
-            @PathVariable Long collectionId) {
-        Long userId = getUserIdFromAuthentication(authentication);
-        TodoCollection collection = todoCollectionService.startSequence(userId, collectionId);
-        return ResponseEntity.ok(collection);
+    public ResponseEntity<SequenceResponse> startSequence(
+            @CurrentUserId Long userId,
+            @PathVariable Long collectionId,
+            @RequestParam(required = false) Integer expectedIndex) {
+        SequenceResponse sequence = todoCollectionService.startSequence(userId, collectionId, expectedIndex);
+        return ResponseEntity.ok(sequence);
     }
     
     @PatchMapping("/{collectionId}/sequence/stop")
     @PutMapping("/{collectionId}/sequence/stop")
-    public ResponseEntity<TodoCollection> stopSequence(
-            Authentication authentication,
-            @PathVariable Long collectionId) {
-        Long userId = getUserIdFromAuthentication(authentication);
-        TodoCollection collection = todoCollectionService.stopSequence(userId, collectionId);
-        return ResponseEntity.ok(collection);
+    public ResponseEntity<SequenceResponse> stopSequence(
+            @CurrentUserId Long userId,
+            @PathVariable Long collectionId,
+            @RequestParam(required = false) Integer expectedIndex) {
+        SequenceResponse sequence = todoCollectionService.stopSequence(userId, collectionId, expectedIndex);
+        return ResponseEntity.ok(sequence);
     }
     
     @PatchMapping("/{collectionId}/sequence/next")
     @PutMapping("/{collectionId}/sequence/next")
-    public ResponseEntity<TodoCollection> nextTaskInSequence(
-            Authentication authentication,
-            @PathVariable Long collectionId) {
-        Long userId = getUserIdFromAuthentication(authentication);
-        TodoCollection collection = todoCollectionService.nextTaskInSequence(userId, collectionId);
-        return ResponseEntity.ok(collection);
+    public ResponseEntity<SequenceResponse> nextTaskInSequence(
+            @CurrentUserId Long userId,
+            @PathVariable Long collectionId,
+            @RequestParam Integer expectedIndex) {
+        SequenceResponse sequence = todoCollectionService.nextTaskInSequence(userId, collectionId, expectedIndex);
+        return ResponseEntity.ok(sequence);
     }
     
     @DeleteMapping("/{collectionId}")
     public ResponseEntity<Void> deleteTodoCollection(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @PathVariable Long collectionId) {
-        Long userId = getUserIdFromAuthentication(authentication);
         todoCollectionService.deleteTodoCollection(userId, collectionId);
         return ResponseEntity.ok().build();
     }
     
     @DeleteMapping("/{collectionId}/items/{itemId}")
     public ResponseEntity<Void> deleteCollectionItem(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @PathVariable Long collectionId,
             @PathVariable Long itemId) {
-        Long userId = getUserIdFromAuthentication(authentication);
         todoCollectionService.deleteCollectionItem(userId, collectionId, itemId);
         return ResponseEntity.ok().build();
     }
-    
-    private Long getUserIdFromAuthentication(Authentication authentication) {
-        String username = authentication.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("用户不存在"));
-        return user.getId();
-    }
 }
\ No newline at end of file
@@ -1,15 +1,17 @@
 package com.dailyapp.controller;
 
+import com.dailyapp.dto.CursorPage;
+import com.dailyapp.dto.TodoBatchResponse;
 import com.dailyapp.dto.TodoItemRequest;
 import com.dailyapp.model.TodoItem;
-import com.dailyapp.model.User;
-import com.dailyapp.repository.UserRepository;
+import com.dailyapp.security.CurrentUserId;
+import com.dailyapp.service.DataVersionService;
 import com.dailyapp.service.TodoItemService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 import java.time.LocalDate;
@@ -24,54 +26,72 @@ import java.util.Map;
 public class TodoItemController {
     
     private final TodoItemService todoItemService;
-    private final UserRepository userRepository;
+    private final DataVersionService dataVersionService;
     
     @PostMapping
     public ResponseEntity<TodoItem> createTodoItem(
-            Authentication authentication,
+            @CurrentUserId(required = false) Long userId,
             @Valid @RequestBody TodoItemRequest request) {
-        if (authentication == null) {
+        if (userId == null) {
             return ResponseEntity.status(401).build();
         }
-        Long userId = getUserIdFromAuthentication(authentication);
         TodoItem todoItem = todoItemService.createTodoItem(userId, request);
         return ResponseEntity.ok(todoItem);
     }
     
+    // 批量新建或更新，每条单独校验，结果与请求数组一一对应
+    @PostMapping("/batch")
+    public ResponseEntity<TodoBatchResponse> saveTodoItems(
+            @CurrentUserId Long userId,
+            @RequestBody List<TodoItemRequest> requests) {
+        return ResponseEntity.ok(todoItemService.saveTodoItems(userId, requests));
+    }
+    
     @GetMapping
-    public ResponseEntity<List<TodoItem>> getUserTodoItems(Authentication authentication) {
-        if (authentication == null) {
+    public ResponseEntity<List<TodoItem>> getUserTodoItems(
+            @CurrentUserId(required = false) Long userId,
+            WebRequest webRequest) {
+        if (userId == null) {
             return ResponseEntity.ok(List.of());
         }
-        Long userId = getUserIdFromAuthentication(authentication);
+        // 数据未变化时直接返回 304，不查询
+        String etag = dataVersionService.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         List<TodoItem> todoItems = todoItemService.getUserTodoItems(userId);
-        return ResponseEntity.ok(todoItems);
+        return ResponseEntity.ok().eTag(etag).body(todoItems);
+    }
+    
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<TodoItem>> getUserTodoItemsPage(
+            @CurrentUserId Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(todoItemService.getUserTodoItemsPage(userId, cursor, size));
     }
     
     @GetMapping("/status/{isCompleted}")
     public ResponseEntity<List<TodoItem>> getUserTodoItemsByStatus(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @PathVariable Boolean isCompleted) {
-        Long userId = getUserIdFromAuthentication(authentication);
         List<TodoItem> todoItems = todoItemService.getUserTodoItemsByStatus(userId, isCompleted);
         return ResponseEntity.ok(todoItems);
     }
     
     @GetMapping("/type/{type}")
     public ResponseEntity<List<TodoItem>> getUserTodoItemsByType(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @PathVariable String type) {
-        Long userId = getUserIdFromAuthentication(authentication);
         List<TodoItem> todoItems = todoItemService.getUserTodoItemsByType(userId, type);
         return ResponseEntity.ok(todoItems);
     }
     
     @GetMapping("/date-range")
     public ResponseEntity<List<TodoItem>> getTodoItemsInDateRange(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        Long userId = getUserIdFromAuthentication(authentication);
         LocalDateTime startTime = startDate.atStartOfDay();
         LocalDateTime endTime = endDate.atTime(LocalTime.MAX);
         List<TodoItem> todoItems = todoItemService.getTodoItemsInDateRange(userId, startTime, endTime);
@@ -80,19 +100,17 @@ public class TodoItemController {
     
     @GetMapping("/{todoId}")
     public ResponseEntity<TodoItem> getTodoItem(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @PathVariable Long todoId) {
-        Long userId = getUserIdFromAuthentication(authentication);
         TodoItem todoItem = todoItemService.getTodoItemByIdAndUserId(todoId, userId);
         return ResponseEntity.ok(todoItem);
     }
     
     @PutMapping("/{todoId}")
     public ResponseEntity<TodoItem> updateTodoItem(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @PathVariable Long todoId,
             @Valid @RequestBody TodoItemRequest request) {
-        Long userId = getUserIdFromAuthentication(authentication);
         TodoItem todoItem = todoItemService.updateTodoItem(userId, todoId, request);
         return ResponseEntity.ok(todoItem);
     }
@@ -100,9 +118,8 @@ public class TodoItemController {
     @PatchMapping("/{todoId}/toggle")
     @PutMapping("/{todoId}/toggle")
     public ResponseEntity<TodoItem> toggleTodoItemStatus(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @PathVariable Long todoId) {
-        Long userId = getUserIdFromAuthentication(authentication);
         TodoItem todoItem = todoItemService.toggleTodoItemStatus(userId, todoId);
         return ResponseEntity.ok(todoItem);
     }
@@ -110,10 +127,9 @@ public class TodoItemController {
     @PatchMapping("/{todoId}/focus-time")
     @PutMapping("/{todoId}/focus-time")
     public ResponseEntity<TodoItem> updateFocusTime(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @PathVariable Long todoId,
             @RequestBody Map<String, Integer> request) {
-        Long userId = getUserIdFromAuthentication(authentication);
         Integer focusTime = request.get("focusTime");
         if (focusTime == null || focusTime < 0) {
             return ResponseEntity.badRequest().build();
@@ -124,17 +140,9 @@ public class TodoItemController {
     
     @DeleteMapping("/{todoId}")
     public ResponseEntity<Void> deleteTodoItem(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @PathVariable Long todoId) {
-        Long userId = getUserIdFromAuthentication(authentication);
         todoItemService.deleteTodoItem(userId, todoId);
         return ResponseEntity.ok().build();
     }
-    
-    private Long getUserIdFromAuthentication(Authentication authentication) {
-        String username = authentication.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("用户不存在"));
-        return user.getId();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.dailyapp.dto;
+
+import com.dailyapp.model.ChangeLogEntry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 事件流中推送的一条数据变更
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeEvent {
+    private Long cursor;                          // 变更日志ID，可作为 /sync/changes 的 since
+    private ChangeLogEntry.EntityType entityType;
+    private Long entityId;
+    private ChangeLogEntry.Operation operation;
+    private Object data;                          // UPSERT 时为实体当前数据，DELETE 或已被删除时为 null
+}
@@ -0,0 +1,21 @@
+package com.dailyapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckInResponse {
+    private Long id;
+    private Long userId;
+    private LocalDate date;
+    private LocalTime time;
+    private int streakCount;
+    private LocalDateTime createdAt;
+}
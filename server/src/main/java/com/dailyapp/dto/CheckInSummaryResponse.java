@@ -0,0 +1,15 @@
+package com.dailyapp.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckInSummaryResponse {
+    private Integer currentStreak;   // 当前连续签到天数
+    private Integer longestStreak;   // 最长连续签到天数
+    private Integer totalDays;       // 累计签到天数
+    private Boolean checkedInToday;  // 今天是否已签到
+}
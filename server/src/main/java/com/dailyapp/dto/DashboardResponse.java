@@ -0,0 +1,25 @@
+package com.dailyapp.dto;
+
+import com.dailyapp.model.TodoCollection;
+import com.dailyapp.model.TodoItem;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 首页数据：待办、合集、专注统计和签到状态，一次请求返回
+ */
+@Data
+@NoArgsConstructor
+public class DashboardResponse {
+    private List<TodoItem> todos;
+    private List<TodoCollection> collections;
+    private int todoTotal;                // 待办总数
+    private int todoCompleted;            // 已完成待办数
+    private long todoFocusTime;           // 已完成待办的专注时间合计（分钟）
+    private int collectionTotal;          // 合集总数
+    private int collectionCompleted;      // 已完成合集数
+    private StatisticsResponse statistics; // 专注统计，含当前连续打卡天数
+    private boolean checkedInToday;       // 今天是否已签到
+}
@@ -0,0 +1,44 @@
+package com.dailyapp.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FocusHistogramResponse {
+    private Granularity bucket;               // 分桶粒度
+    private LocalDate from;                   // 起始日期（含）
+    private LocalDate to;                     // 结束日期（含）
+    private List<Bucket> buckets = new ArrayList<>(); // 按时间升序，无数据的桶也会返回
+
+    public enum Granularity {
+        HOUR, DAY, WEEK, MONTH;
+
+        public static Granularity of(String value) {
+            for (Granularity granularity : values()) {
+                if (granularity.name().equalsIgnoreCase(value)) {
+                    return granularity;
+                }
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "不支持的分桶粒度");
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private LocalDateTime start;  // 桶起始时间（周从周一开始，月从1号开始）
+        private long totalMinutes;    // 专注总时长（分钟）
+        private long sessionCount;    // 专注次数
+    }
+}
@@ -0,0 +1,31 @@
+package com.dailyapp.dto;
+
+import com.dailyapp.model.FocusSession;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 专注记录返回体，列表查询直接投影为该对象，不加载用户
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FocusSessionResponse {
+    private Long id;
+    private Long userId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Integer durationMinutes;
+    private String taskDescription;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static FocusSessionResponse from(FocusSession session) {
+        // getId() 不会触发用户代理的加载
+        return new FocusSessionResponse(session.getId(), session.getUser().getId(), session.getStartTime(), session.getEndTime(),
+                session.getDurationMinutes(), session.getTaskDescription(), session.getCreatedAt(), session.getUpdatedAt());
+    }
+}
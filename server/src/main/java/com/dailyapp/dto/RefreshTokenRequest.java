@@ -0,0 +1,10 @@
+package com.dailyapp.dto;
+
+import javax.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+    @NotBlank(message = "刷新令牌不能为空")
+    private String refreshToken;
+}
@@ -0,0 +1,34 @@
+package com.dailyapp.dto;
+
+import com.dailyapp.model.TodoCollection;
+import com.dailyapp.model.TodoCollectionItem;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 序列模式开始、下一个、停止的返回体，附带当前子任务，客户端无需再请求子任务列表
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SequenceResponse {
+    private Long id;
+    private Long userId;
+    private String title;
+    private String description;
+    private Boolean isSequenceActive;
+    private Integer currentTaskIndex;
+    private Integer itemCount;
+    private LocalDateTime createTime;
+    private LocalDateTime completedTime;
+    private TodoCollectionItem currentItem; // 序列未激活时为 null
+
+    public static SequenceResponse from(TodoCollection collection, TodoCollectionItem currentItem) {
+        return new SequenceResponse(collection.getId(), collection.getUserId(), collection.getTitle(),
+                collection.getDescription(), collection.getIsSequenceActive(), collection.getCurrentTaskIndex(),
+                collection.getItemCount(), collection.getCreateTime(), collection.getCompletedTime(), currentItem);
+    }
+}
@@ -0,0 +1,34 @@
+package com.dailyapp.dto;
+
+import com.dailyapp.model.ChangeLogEntry;
+import com.dailyapp.model.FocusSession;
+import com.dailyapp.model.TodoCollection;
+import com.dailyapp.model.TodoCollectionItem;
+import com.dailyapp.model.TodoItem;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class SyncChangesResponse {
+    private Long cursor;                 // 下次同步使用的游标
+    private boolean hasMore;             // 是否还有未返回的变更
+    private boolean fullResync;          // 客户端需全量拉取后再从 cursor 开始增量同步
+    private List<TodoItem> todoItems = new ArrayList<>();
+    private List<TodoCollection> todoCollections = new ArrayList<>();
+    private List<TodoCollectionItem> todoCollectionItems = new ArrayList<>();
+    private List<FocusSession> focusSessions = new ArrayList<>();
+    private List<Tombstone> deleted = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tombstone {
+        private ChangeLogEntry.EntityType entityType;
+        private Long id;
+    }
+}
@@ -0,0 +1,34 @@
+package com.dailyapp.dto;
+
+import com.dailyapp.model.TodoItem;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class TodoBatchResponse {
+    private int created;                            // 新建条数
+    private int updated;                            // 更新条数
+    private int failed;                             // 校验未通过、未保存的条数
+    private List<ItemResult> results = new ArrayList<>(); // 与请求数组一一对应
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        INVALID
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;           // 在请求数组中的位置
+        private Status status;
+        private TodoItem item;       // 保存后的待办，校验失败时为 null
+        private List<String> errors; // 校验失败原因
+    }
+}
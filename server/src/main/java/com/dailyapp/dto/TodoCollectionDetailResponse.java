@@ -0,0 +1,47 @@
+package com.dailyapp.dto;
+
+import com.dailyapp.model.TodoCollection;
+import com.dailyapp.model.TodoCollectionItem;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 合集列表 expand 模式的返回体：合集连同子任务和完成进度，未请求的部分不输出
+ */
+@Data
+@NoArgsConstructor
+public class TodoCollectionDetailResponse {
+    private Long id;
+    private Long userId;
+    private String title;
+    private String description;
+    private Boolean isSequenceActive;
+    private Integer currentTaskIndex;
+    private Integer itemCount;
+    private LocalDateTime createTime;
+    private LocalDateTime completedTime;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<TodoCollectionItem> items;     // expand=items
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer itemTotal;                  // expand=progress，子任务总数
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer itemCompleted;              // expand=progress，已完成子任务数
+
+    public static TodoCollectionDetailResponse from(TodoCollection collection) {
+        TodoCollectionDetailResponse response = new TodoCollectionDetailResponse();
+        response.setId(collection.getId());
+        response.setUserId(collection.getUserId());
+        response.setTitle(collection.getTitle());
+        response.setDescription(collection.getDescription());
+        response.setIsSequenceActive(collection.getIsSequenceActive());
+        response.setCurrentTaskIndex(collection.getCurrentTaskIndex());
+        response.setItemCount(collection.getItemCount());
+        response.setCreateTime(collection.getCreateTime());
+        response.setCompletedTime(collection.getCompletedTime());
+        return response;
+    }
+}
@@ -5,6 +5,7 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -12,11 +13,15 @@ import java.util.ArrayList;
 @NoArgsConstructor
 @AllArgsConstructor
 public class TodoCollectionRequest {
+    // 与批量待办接口的默认上限一致
+    public static final int MAX_ITEMS = 1000;
+    
     @NotBlank(message = "合集标题不能为空")
     private String title;
     
     private String description;
     
+    @Size(max = MAX_ITEMS, message = "单个合集最多" + MAX_ITEMS + "个子任务")
     private List<TodoCollectionItemRequest> items = new ArrayList<>();
     
     @Data
@@ -7,17 +7,23 @@ import lombok.AllArgsConstructor;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class TodoItemRequest {
+    private Long id; // 仅批量接口使用：有值时更新该待办，为空时新建
+    
     @NotBlank(message = "标题不能为空")
+    @Size(max = 255, message = "标题不能超过255个字符")
     private String title;
     
+    @Size(max = 500, message = "描述不能超过500个字符")
     private String description;
     
     @NotBlank(message = "类型不能为空")
+    @Size(max = 100, message = "类型不能超过100个字符")
     private String type;
     
     @NotNull(message = "时长不能为空")
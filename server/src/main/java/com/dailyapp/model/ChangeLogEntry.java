@@ -0,0 +1,58 @@
+package com.dailyapp.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 数据变更日志，自增ID即增量同步游标
+ * 同一用户的记录由 ChangeLogService 串行写入，ID 顺序与提交顺序一致
+ */
+@Entity
+@Table(name = "change_log",
+        indexes = @Index(name = "idx_change_log_user_id", columnList = "userId, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private EntityType entityType;
+    
+    @Column(nullable = false)
+    private Long entityId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Operation operation;
+    
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        changedAt = LocalDateTime.now();
+    }
+    
+    public enum EntityType {
+        TODO_ITEM,
+        TODO_COLLECTION,
+        TODO_COLLECTION_ITEM,
+        FOCUS_SESSION
+    }
+    
+    public enum Operation {
+        UPSERT, // 新增或修改
+        DELETE  // 删除（墓碑）
+    }
+}
@@ -1,6 +1,7 @@
 package com.dailyapp.model;
 
 import javax.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
@@ -12,14 +13,17 @@ import java.time.LocalTime;
 
 @Data
 @Entity
-@Table(name = "check_ins")
+@Table(name = "check_ins",
+        indexes = @Index(name = "uk_check_ins_user_date", columnList = "user_id, date", unique = true))
 @EntityListeners(AuditingEntityListener.class)
 public class CheckIn {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // 接口返回 DTO，不序列化用户；按需加载，查询记录时不再关联 users 表
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -0,0 +1,32 @@
+package com.dailyapp.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "focus_daily_stats",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"userId", "statDate"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FocusDailyStat {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long userId;
+    
+    @Column(nullable = false)
+    private LocalDate statDate; // 统计日期（按会话开始时间归档）
+    
+    @Column(nullable = false)
+    private Integer totalMinutes = 0; // 当日专注总时长（分钟）
+    
+    @Column(nullable = false)
+    private Integer sessionCount = 0; // 当日专注次数
+}
@@ -1,6 +1,7 @@
 package com.dailyapp.model;
 
 import javax.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
@@ -10,14 +11,17 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "focus_sessions")
+@Table(name = "focus_sessions",
+        indexes = @Index(name = "idx_focus_sessions_user_start", columnList = "user_id, startTime"))
 @EntityListeners(AuditingEntityListener.class)
 public class FocusSession {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // 接口返回 DTO，不序列化用户；按需加载，查询记录时不再关联 users 表
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -0,0 +1,29 @@
+package com.dailyapp.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * 用户专注统计汇总，随专注会话的创建增量维护
+ */
+@Entity
+@Table(name = "focus_user_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FocusUserStat {
+    @Id
+    private Long userId;
+    
+    @Column(nullable = false)
+    private Integer totalMinutes = 0; // 总专注时长（分钟）
+    
+    @Column(nullable = false)
+    private Integer sessionCount = 0; // 总专注次数
+    
+    @Column(nullable = false)
+    private Integer activeDays = 0; // 有专注记录的天数
+}
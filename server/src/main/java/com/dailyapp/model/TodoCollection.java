@@ -3,12 +3,20 @@ package com.dailyapp.model;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "todo_collections")
+@Table(name = "todo_collections",
+        indexes = @Index(name = "idx_todo_collections_user_create", columnList = "userId, createTime"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "todoCollections")
+// 只更新改动的列，修改标题或标记完成时不会覆盖并发写入的序列进度和子任务数
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,6 +40,10 @@ public class TodoCollection {
     @Column
     private Integer currentTaskIndex = -1;
     
+    // 子任务数，随子任务增删以原子 UPDATE 维护
+    @Column(nullable = false)
+    private Integer itemCount = 0;
+    
     @Column(nullable = false)
     private LocalDateTime createTime;
     
@@ -3,12 +3,21 @@ package com.dailyapp.model;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import com.dailyapp.service.FocusTimeOverlayListener;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "todo_collection_items")
+@Table(name = "todo_collection_items",
+        indexes = @Index(name = "idx_todo_collection_items_collection_order", columnList = "collectionId, orderIndex"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "todoCollectionItems")
+@EntityListeners(FocusTimeOverlayListener.class)
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -3,18 +3,35 @@ package com.dailyapp.model;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import com.dailyapp.service.FocusTimeOverlayListener;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "todo_items")
+@Table(name = "todo_items", indexes = {
+        @Index(name = "idx_todo_items_user_create", columnList = "userId, createTime"),
+        @Index(name = "idx_todo_items_user_completed", columnList = "userId, isCompleted, createTime"),
+        @Index(name = "idx_todo_items_user_type", columnList = "userId, type, createTime")
+})
+@EntityListeners(FocusTimeOverlayListener.class)
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class TodoItem {
+    // 序列分配ID（每次预取50个），插入可以按 JDBC 批量执行
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_items_seq")
+    @GenericGenerator(name = "todo_items_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "todo_items_seq"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            })
     private Long id;
     
     @Column(nullable = false)
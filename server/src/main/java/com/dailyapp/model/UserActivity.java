@@ -0,0 +1,31 @@
+package com.dailyapp.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * 用户活跃日位图：每天一位，分别记录有专注记录的日期和签到日期
+ * 位 i 对应 epoch day = baseDay + i，随专注会话和签到增量维护
+ */
+@Entity
+@Table(name = "user_activity")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserActivity {
+    @Id
+    private Long userId;
+    
+    private Long focusBaseDay; // 专注位图第0位对应的 epoch day，无记录时为空
+    
+    @Column(length = 8192)
+    private byte[] focusDays;
+    
+    private Long checkInBaseDay; // 签到位图第0位对应的 epoch day，无记录时为空
+    
+    @Column(length = 8192)
+    private byte[] checkInDays;
+}
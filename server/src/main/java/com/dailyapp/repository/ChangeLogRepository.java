@@ -0,0 +1,24 @@
+package com.dailyapp.repository;
+
+import com.dailyapp.model.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+    
+    @Query("SELECT c FROM ChangeLogEntry c WHERE c.userId = :userId AND c.id > :since ORDER BY c.id ASC")
+    List<ChangeLogEntry> findChangesSince(@Param("userId") Long userId, @Param("since") Long since, Pageable pageable);
+    
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM ChangeLogEntry c WHERE c.userId = :userId")
+    Long findLatestIdByUserId(@Param("userId") Long userId);
+    
+    // 过期清理只删除最早的一段记录，最小ID之前的变更都已被删除
+    @Query("SELECT COALESCE(MIN(c.id), 1) - 1 FROM ChangeLogEntry c")
+    Long findRetainedFloor();
+}
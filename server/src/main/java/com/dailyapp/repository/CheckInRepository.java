@@ -3,13 +3,24 @@ package com.dailyapp.repository;
 import com.dailyapp.model.CheckIn;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface CheckInRepository extends JpaRepository<CheckIn, Long> {
-    Optional<CheckIn> findByUserIdAndDate(Long userId, LocalDate date);
+    boolean existsByUserIdAndDate(Long userId, LocalDate date);
+
+    @Query("SELECT c.date FROM CheckIn c WHERE c.user.id = ?1")
+    List<LocalDate> findDatesByUserId(Long userId);
 
-    @Query("SELECT MAX(c.streakCount) FROM CheckIn c WHERE c.user.id = ?1")
-    Integer findMaxStreakCountByUserId(Long userId);
-} 
\ No newline at end of file
+    // 导出用：流式读取，调用方需在事务内消费
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("SELECT c FROM CheckIn c WHERE c.user.id = ?1 ORDER BY c.date")
+    Stream<CheckIn> streamByUserId(Long userId);
+}
@@ -0,0 +1,26 @@
+package com.dailyapp.repository;
+
+import com.dailyapp.model.FocusDailyStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface FocusDailyStatRepository extends JpaRepository<FocusDailyStat, Long> {
+    
+    Optional<FocusDailyStat> findByUserIdAndStatDate(Long userId, LocalDate statDate);
+    
+    @Query("SELECT COALESCE(SUM(d.totalMinutes), 0) FROM FocusDailyStat d WHERE d.userId = :userId AND d.statDate >= :startDate AND d.statDate <= :endDate")
+    Long sumMinutesByUserIdAndDateRange(@Param("userId") Long userId,
+                                        @Param("startDate") LocalDate startDate,
+                                        @Param("endDate") LocalDate endDate);
+    
+    @Modifying
+    @Query("DELETE FROM FocusDailyStat d WHERE d.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
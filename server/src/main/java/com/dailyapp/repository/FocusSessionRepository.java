@@ -1,17 +1,55 @@
 package com.dailyapp.repository;
 
+import com.dailyapp.dto.FocusSessionResponse;
 import com.dailyapp.model.FocusSession;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface FocusSessionRepository extends JpaRepository<FocusSession, Long> {
-    List<FocusSession> findByUserIdAndStartTimeBetween(Long userId, LocalDateTime start, LocalDateTime end);
+    // 列表查询直接投影为返回体，只读取需要的列
+    String RESPONSE = "SELECT new com.dailyapp.dto.FocusSessionResponse(f.id, f.user.id, f.startTime, f.endTime, f.durationMinutes, "
+            + "f.taskDescription, f.createdAt, f.updatedAt) FROM FocusSession f ";
+
+    // 左闭右开区间 [start, end)
+    @Query(RESPONSE + "WHERE f.user.id = ?1 AND f.startTime >= ?2 AND f.startTime < ?3 ORDER BY f.startTime")
+    List<FocusSessionResponse> findByUserIdAndStartTimeInRange(Long userId, LocalDateTime start, LocalDateTime end);
     
-    List<FocusSession> findByUserIdOrderByStartTimeDesc(Long userId);
+    @Query(RESPONSE + "WHERE f.user.id = ?1 ORDER BY f.startTime DESC")
+    List<FocusSessionResponse> findByUserIdOrderByStartTimeDesc(Long userId);
+
+    @Query(RESPONSE + "WHERE f.user.id = ?1 ORDER BY f.startTime DESC, f.id DESC")
+    List<FocusSessionResponse> findFirstPageByUserId(Long userId, Pageable pageable);
+
+    @Query(RESPONSE + "WHERE f.user.id = ?1 AND (f.startTime < ?2 OR (f.startTime = ?2 AND f.id < ?3)) ORDER BY f.startTime DESC, f.id DESC")
+    List<FocusSessionResponse> findPageByUserIdAfterCursor(Long userId, LocalDateTime startTime, Long id, Pageable pageable);
 
     @Query("SELECT SUM(f.durationMinutes) FROM FocusSession f WHERE f.user.id = ?1 AND f.startTime BETWEEN ?2 AND ?3")
     Integer sumDurationByUserIdAndTimeRange(Long userId, LocalDateTime start, LocalDateTime end);
-}
\ No newline at end of file
+
+    // 按天汇总专注时长和次数，用于重建统计汇总表：[日期, 总时长, 次数]
+    @Query("SELECT CAST(f.startTime AS date), SUM(f.durationMinutes), COUNT(f) FROM FocusSession f WHERE f.user.id = ?1 GROUP BY CAST(f.startTime AS date)")
+    List<Object[]> aggregateDailyByUserId(Long userId);
+
+    // 按天聚合 [start, end) 内的专注记录：日期、总时长、次数
+    @Query("SELECT CAST(f.startTime AS date), SUM(f.durationMinutes), COUNT(f) FROM FocusSession f WHERE f.user.id = ?1 AND f.startTime >= ?2 AND f.startTime < ?3 GROUP BY CAST(f.startTime AS date)")
+    List<Object[]> aggregateDailyByUserIdAndTimeRange(Long userId, LocalDateTime start, LocalDateTime end);
+
+    // 按小时聚合 [start, end) 内的专注记录：日期、小时、总时长、次数
+    @Query("SELECT CAST(f.startTime AS date), HOUR(f.startTime), SUM(f.durationMinutes), COUNT(f) FROM FocusSession f WHERE f.user.id = ?1 AND f.startTime >= ?2 AND f.startTime < ?3 GROUP BY CAST(f.startTime AS date), HOUR(f.startTime)")
+    List<Object[]> aggregateHourlyByUserIdAndTimeRange(Long userId, LocalDateTime start, LocalDateTime end);
+
+    // 导出用：流式读取，调用方需在事务内消费
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("SELECT f FROM FocusSession f WHERE f.user.id = ?1 ORDER BY f.id")
+    Stream<FocusSession> streamByUserId(Long userId);
+}
@@ -0,0 +1,19 @@
+package com.dailyapp.repository;
+
+import com.dailyapp.model.FocusUserStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface FocusUserStatRepository extends JpaRepository<FocusUserStat, Long> {
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM FocusUserStat s WHERE s.userId = :userId")
+    Optional<FocusUserStat> findByUserIdForUpdate(@Param("userId") Long userId);
+}
@@ -1,18 +1,35 @@
 package com.dailyapp.repository;
 
 import com.dailyapp.model.TodoCollectionItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface TodoCollectionItemRepository extends JpaRepository<TodoCollectionItem, Long> {
     
+    // 结果放入查询缓存，todo_collection_items 表有写入时自动失效
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = "collectionItemsByCollection")})
     List<TodoCollectionItem> findByCollectionIdOrderByOrderIndexAsc(Long collectionId);
     
+    // 序列模式按位置取当前子任务，只读一行；与子任务列表共用查询缓存区
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = "collectionItemsByCollection")})
+    List<TodoCollectionItem> findByCollectionIdOrderByOrderIndexAscIdAsc(Long collectionId, Pageable pageable);
+    
     @Query("SELECT tci FROM TodoCollectionItem tci WHERE tci.collectionId = :collectionId AND tci.isCompleted = :isCompleted ORDER BY tci.orderIndex ASC")
     List<TodoCollectionItem> findByCollectionIdAndIsCompleted(@Param("collectionId") Long collectionId, 
                                                              @Param("isCompleted") Boolean isCompleted);
@@ -23,5 +40,26 @@ public interface TodoCollectionItemRepository extends JpaRepository<TodoCollecti
     @Query("SELECT COUNT(tci) FROM TodoCollectionItem tci WHERE tci.collectionId = :collectionId")
     Long countTotalByCollectionId(@Param("collectionId") Long collectionId);
     
-    void deleteByCollectionId(Long collectionId);
-}
\ No newline at end of file
+    @Query("SELECT tci.id FROM TodoCollectionItem tci WHERE tci.collectionId = :collectionId")
+    List<Long> findIdsByCollectionId(@Param("collectionId") Long collectionId);
+    
+    // 合集列表 expand=items：一条查询取用户全部合集的子任务，按合集分组后顺序与单个合集的子任务列表一致
+    @Query("SELECT tci FROM TodoCollectionItem tci, TodoCollection tc WHERE tci.collectionId = tc.id AND tc.userId = :userId ORDER BY tci.collectionId, tci.orderIndex, tci.id")
+    List<TodoCollectionItem> findByUserId(@Param("userId") Long userId);
+    
+    // 合集列表 expand=progress：每个合集一行 [合集ID, 子任务数, 已完成数]，没有子任务的合集不返回
+    @Query("SELECT tci.collectionId, COUNT(tci), SUM(CASE WHEN tci.isCompleted = true THEN 1 ELSE 0 END) FROM TodoCollectionItem tci, TodoCollection tc "
+            + "WHERE tci.collectionId = tc.id AND tc.userId = :userId GROUP BY tci.collectionId")
+    List<Object[]> countProgressByUserId(@Param("userId") Long userId);
+    
+    // 单条 DELETE 语句删除，不逐个加载实体；执行后 Hibernate 清除子任务的二级缓存和查询缓存
+    @Modifying
+    @Query("DELETE FROM TodoCollectionItem tci WHERE tci.collectionId = :collectionId")
+    int deleteByCollectionId(@Param("collectionId") Long collectionId);
+    
+    // 导出用：流式读取用户所有合集的子任务，调用方需在事务内消费；不读写二级缓存
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("SELECT tci FROM TodoCollectionItem tci, TodoCollection tc WHERE tci.collectionId = tc.id AND tc.userId = :userId ORDER BY tci.collectionId, tci.orderIndex")
+    Stream<TodoCollectionItem> streamByUserId(@Param("userId") Long userId);
+}
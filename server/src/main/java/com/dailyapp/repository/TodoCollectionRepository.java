@@ -1,19 +1,36 @@
 package com.dailyapp.repository;
 
 import com.dailyapp.model.TodoCollection;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface TodoCollectionRepository extends JpaRepository<TodoCollection, Long> {
     
     List<TodoCollection> findByUserIdOrderByCreateTimeDesc(Long userId);
     
+    @Query("SELECT tc FROM TodoCollection tc WHERE tc.userId = :userId ORDER BY tc.createTime DESC, tc.id DESC")
+    List<TodoCollection> findFirstPageByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT tc FROM TodoCollection tc WHERE tc.userId = :userId AND (tc.createTime < :createTime OR (tc.createTime = :createTime AND tc.id < :id)) ORDER BY tc.createTime DESC, tc.id DESC")
+    List<TodoCollection> findPageByUserIdAfterCursor(@Param("userId") Long userId,
+                                                     @Param("createTime") LocalDateTime createTime,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
+    
     @Query("SELECT tc FROM TodoCollection tc WHERE tc.userId = :userId AND tc.createTime >= :startTime AND tc.createTime <= :endTime ORDER BY tc.createTime DESC")
     List<TodoCollection> findByUserIdAndCreateTimeBetween(@Param("userId") Long userId, 
                                                          @Param("startTime") LocalDateTime startTime, 
@@ -24,4 +41,10 @@ public interface TodoCollectionRepository extends JpaRepository<TodoCollection,
     
     @Query("SELECT COUNT(tc) FROM TodoCollection tc WHERE tc.userId = :userId")
     Long countTotalByUserId(@Param("userId") Long userId);
-}
\ No newline at end of file
+    
+    // 导出用：流式读取，调用方需在事务内消费；不读写二级缓存
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("SELECT tc FROM TodoCollection tc WHERE tc.userId = :userId ORDER BY tc.id")
+    Stream<TodoCollection> streamByUserId(@Param("userId") Long userId);
+}
@@ -1,19 +1,35 @@
 package com.dailyapp.repository;
 
 import com.dailyapp.model.TodoItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface TodoItemRepository extends JpaRepository<TodoItem, Long> {
     
     List<TodoItem> findByUserIdOrderByCreateTimeDesc(Long userId);
     
+    @Query("SELECT t FROM TodoItem t WHERE t.userId = :userId ORDER BY t.createTime DESC, t.id DESC")
+    List<TodoItem> findFirstPageByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT t FROM TodoItem t WHERE t.userId = :userId AND (t.createTime < :createTime OR (t.createTime = :createTime AND t.id < :id)) ORDER BY t.createTime DESC, t.id DESC")
+    List<TodoItem> findPageByUserIdAfterCursor(@Param("userId") Long userId,
+                                               @Param("createTime") LocalDateTime createTime,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
+    
     List<TodoItem> findByUserIdAndIsCompletedOrderByCreateTimeDesc(Long userId, Boolean isCompleted);
     
     List<TodoItem> findByUserIdAndTypeOrderByCreateTimeDesc(Long userId, String type);
@@ -31,4 +47,9 @@ public interface TodoItemRepository extends JpaRepository<TodoItem, Long> {
     
     @Query("SELECT SUM(t.focusTime) FROM TodoItem t WHERE t.userId = :userId AND t.isCompleted = true AND t.focusTime IS NOT NULL")
     Long sumFocusTimeByUserId(@Param("userId") Long userId);
-}
\ No newline at end of file
+    
+    // 导出用：流式读取，调用方需在事务内消费
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("SELECT t FROM TodoItem t WHERE t.userId = :userId ORDER BY t.id")
+    Stream<TodoItem> streamByUserId(@Param("userId") Long userId);
+}
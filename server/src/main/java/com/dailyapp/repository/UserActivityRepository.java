@@ -0,0 +1,19 @@
+package com.dailyapp.repository;
+
+import com.dailyapp.model.UserActivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface UserActivityRepository extends JpaRepository<UserActivity, Long> {
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM UserActivity a WHERE a.userId = :userId")
+    Optional<UserActivity> findByUserIdForUpdate(@Param("userId") Long userId);
+}
@@ -2,10 +2,16 @@ package com.dailyapp.repository;
 
 import com.dailyapp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // 登录认证经 CachingUserDetailsService 按用户名缓存，不再使用查询缓存
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
-} 
\ No newline at end of file
+
+    @Query("SELECT u.id FROM User u")
+    List<Long> findAllIds();
+} 
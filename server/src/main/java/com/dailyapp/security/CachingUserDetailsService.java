@@ -0,0 +1,73 @@
+package com.dailyapp.security;
+
+import com.dailyapp.model.User;
+import com.dailyapp.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 唯一的用户信息加载实现，登录认证和不含用户ID的旧令牌都从这里取用户
+ * 按用户名缓存用户主体，条目数和写入后存活时间有上限；注册、修改密码时显式失效
+ */
+@Component
+public class CachingUserDetailsService implements UserDetailsService, UserDetailsPasswordService, MeterBinder {
+
+    private final UserRepository userRepository;
+    private final Cache<String, UserPrincipal> cache;
+
+    public CachingUserDetailsService(UserRepository userRepository,
+                                     @Value("${user-details.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${user-details.cache.expire-after-write:600000}") long expireAfterWrite) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "userDetails");
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // 用户不存在时抛出异常，不会缓存
+        return cache.get(username, this::load);
+    }
+
+    /**
+     * 认证成功后密码哈希需要升级时由认证流程调用；保存提交后再失效，避免缓存读回旧哈希
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("用户不存在"));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        evict(user.getUsername());
+        return UserPrincipal.fromUser(user);
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    private UserPrincipal load(String username) {
+        return userRepository.findByUsername(username)
+                .map(UserPrincipal::fromUser)
+                .orElseThrow(() -> new UsernameNotFoundException("用户不存在"));
+    }
+}
@@ -0,0 +1,19 @@
+package com.dailyapp.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 注入当前登录用户的ID，由 {@link CurrentUserIdArgumentResolver} 从认证主体中解析
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUserId {
+
+    /**
+     * 为 false 时未登录注入 null，否则返回 401
+     */
+    boolean required() default true;
+}
@@ -1,5 +1,6 @@
 package com.dailyapp.security;
 
+import io.jsonwebtoken.Claims;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -22,6 +23,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Override
     protected void doFilterInternal(
@@ -31,7 +33,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -39,12 +40,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = resolveUser(jwt);
+
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -56,4 +56,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
-} 
\ No newline at end of file
+
+    private UserDetails resolveUser(String jwt) {
+        // 命中缓存说明该令牌已验签且尚未过期
+        UserPrincipal cached = verifiedTokenCache.get(jwt);
+        if (cached != null) {
+            return cached;
+        }
+
+        // 每个令牌只解析验签一次
+        Claims claims = jwtService.extractAllClaims(jwt);
+        String username = claims.getSubject();
+        // 刷新令牌不能当作访问令牌使用
+        if (username == null || jwtService.isRefreshToken(claims)) {
+            return null;
+        }
+
+        Long userId = jwtService.extractUserId(claims);
+        // 新令牌直接由声明构建主体；不含用户ID的旧令牌回退为查询用户
+        UserDetails userDetails = userId != null
+                ? new UserPrincipal(userId, username, null)
+                : this.userDetailsService.loadUserByUsername(username);
+
+        if (!jwtService.isTokenValid(claims, userDetails)) {
+            return null;
+        }
+        if (userDetails instanceof UserPrincipal) {
+            UserPrincipal principal = (UserPrincipal) userDetails;
+            verifiedTokenCache.put(jwt, new UserPrincipal(principal.getId(), principal.getUsername(), null),
+                    claims.getExpiration());
+        }
+        return userDetails;
+    }
+}
@@ -0,0 +1,234 @@
+package com.dailyapp.service;
+
+import com.dailyapp.model.UserActivity;
+import com.dailyapp.repository.CheckInRepository;
+import com.dailyapp.repository.FocusSessionRepository;
+import com.dailyapp.repository.UserActivityRepository;
+import com.dailyapp.util.ActivityDays;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * 用户活跃日位图服务
+ * 位图持久化在 user_activity 表，读取时走内存缓存；写入时锁定用户行，提交后使缓存失效
+ */
+@Slf4j
+@Service
+public class ActivityService implements MeterBinder {
+
+    private static final String CREATE_ACTIVITY_SQL = "INSERT INTO user_activity (user_id) "
+            + "SELECT ? WHERE NOT EXISTS (SELECT 1 FROM user_activity WHERE user_id = ?)";
+
+    private final UserActivityRepository userActivityRepository;
+    private final FocusSessionRepository focusSessionRepository;
+    private final CheckInRepository checkInRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final Cache<Long, Snapshot> cache;
+
+    public ActivityService(UserActivityRepository userActivityRepository,
+                           FocusSessionRepository focusSessionRepository,
+                           CheckInRepository checkInRepository,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${activity.cache.maximum-size:10000}") long maximumSize) {
+        this.userActivityRepository = userActivityRepository;
+        this.focusSessionRepository = focusSessionRepository;
+        this.checkInRepository = checkInRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // 提交回调中仍绑定着原事务的连接，需要新开事务
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "activitySnapshots");
+    }
+
+    /**
+     * 位图的只读快照，缓存中的对象不会被修改
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        private final ActivityDays focusDays;
+        private final ActivityDays checkInDays;
+    }
+
+    /**
+     * 记录某天有专注，需与会话保存处于同一事务中
+     */
+    @Transactional
+    public void recordFocusDay(Long userId, LocalDate date) {
+        update(userId, activity -> {
+            ActivityDays days = ActivityDays.decode(activity.getFocusBaseDay(), activity.getFocusDays());
+            if (days.add(date)) {
+                activity.setFocusBaseDay(days.getBaseDay());
+                activity.setFocusDays(days.toByteArray());
+            }
+        });
+    }
+
+    /**
+     * 记录某天已签到，签到接口通过 recordCheckInDayAfterCommit 在签到提交后调用
+     */
+    @Transactional
+    public void recordCheckInDay(Long userId, LocalDate date) {
+        update(userId, activity -> {
+            ActivityDays days = ActivityDays.decode(activity.getCheckInBaseDay(), activity.getCheckInDays());
+            if (days.add(date)) {
+                activity.setCheckInBaseDay(days.getBaseDay());
+                activity.setCheckInDays(days.toByteArray());
+            }
+        });
+    }
+
+    /**
+     * 签到事务提交后再在独立事务中记录签到日，签到事务不再持有位图行锁，同一用户的并发签到能更早得到 409
+     * 位图只是签到记录的汇总：更新失败时删除位图行，下次读取按签到记录重建，下次写入时重新创建
+     */
+    public void recordCheckInDayAfterCommit(Long userId, LocalDate date) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    newTransaction.executeWithoutResult(status -> recordCheckInDay(userId, date));
+                } catch (RuntimeException e) {
+                    log.warn("更新用户 {} 的签到位图失败，改为下次读取时重建", userId, e);
+                    discard(userId);
+                }
+            }
+        });
+    }
+
+    public Snapshot getSnapshot(Long userId) {
+        return cache.get(userId, this::load);
+    }
+
+    /**
+     * 根据专注记录和签到记录重建某个用户的位图
+     */
+    @Transactional
+    public UserActivity rebuildUser(Long userId) {
+        createActivityIfAbsent(userId);
+        UserActivity activity = userActivityRepository.findByUserIdForUpdate(userId)
+                .orElseThrow(() -> new IllegalStateException("活跃日位图不存在"));
+        Snapshot history = buildFromHistory(userId);
+        activity.setFocusBaseDay(history.getFocusDays().getBaseDay());
+        activity.setFocusDays(history.getFocusDays().toByteArray());
+        activity.setCheckInBaseDay(history.getCheckInDays().getBaseDay());
+        activity.setCheckInDays(history.getCheckInDays().toByteArray());
+        UserActivity saved = userActivityRepository.save(activity);
+        evictAfterCommit(userId);
+        return saved;
+    }
+
+    private Snapshot buildFromHistory(Long userId) {
+        // 超出可记录范围的历史日期不写入位图
+        ActivityDays focusDays = ActivityDays.empty();
+        for (Object[] row : focusSessionRepository.aggregateDailyByUserId(userId)) {
+            LocalDate date = toLocalDate(row[0]);
+            if (ActivityDays.supports(date)) {
+                focusDays.add(date);
+            }
+        }
+        ActivityDays checkInDays = ActivityDays.empty();
+        for (LocalDate date : checkInRepository.findDatesByUserId(userId)) {
+            if (ActivityDays.supports(date)) {
+                checkInDays.add(date);
+            }
+        }
+        return new Snapshot(focusDays, checkInDays);
+    }
+
+    private void update(Long userId, Consumer<UserActivity> change) {
+        // 锁定用户行，串行化同一用户的并发写入；位图行通常已存在，先加锁读取，省去一次插入尝试
+        Optional<UserActivity> locked = userActivityRepository.findByUserIdForUpdate(userId);
+        if (!locked.isPresent()) {
+            if (createActivityIfAbsent(userId)) {
+                // 尚无位图：根据历史记录重建（已包含本次写入）；并发的首次写入在插入位图行时等待本事务提交
+                rebuildUser(userId);
+                return;
+            }
+            locked = userActivityRepository.findByUserIdForUpdate(userId);
+        }
+        UserActivity activity = locked.orElseThrow(() -> new IllegalStateException("活跃日位图不存在"));
+        change.accept(activity);
+        userActivityRepository.save(activity);
+        evictAfterCommit(userId);
+    }
+
+    private boolean createActivityIfAbsent(Long userId) {
+        try {
+            return jdbcTemplate.update(CREATE_ACTIVITY_SQL, userId, userId) > 0;
+        } catch (DuplicateKeyException e) {
+            // 并发请求先插入并已提交
+            return false;
+        }
+    }
+
+    private Snapshot load(Long userId) {
+        // 只读：尚无位图时直接用历史记录在内存中构建，位图行在下次写入时创建
+        return userActivityRepository.findById(userId)
+                .map(activity -> new Snapshot(
+                        ActivityDays.decode(activity.getFocusBaseDay(), activity.getFocusDays()),
+                        ActivityDays.decode(activity.getCheckInBaseDay(), activity.getCheckInDays())))
+                .orElseGet(() -> buildFromHistory(userId));
+    }
+
+    private void discard(Long userId) {
+        try {
+            newTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.update("DELETE FROM user_activity WHERE user_id = ?", userId));
+        } catch (RuntimeException e) {
+            log.error("删除用户 {} 的活跃日位图失败，需执行重建", userId, e);
+        }
+        cache.invalidate(userId);
+    }
+
+    // 提交后再失效，避免并发读取在提交前把旧数据重新放回缓存
+    private void evictAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidate(userId);
+            }
+        });
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        return ((java.sql.Date) value).toLocalDate();
+    }
+}
@@ -4,36 +4,93 @@ import com.dailyapp.dto.AuthRequest;
 import com.dailyapp.dto.AuthResponse;
 import com.dailyapp.model.User;
 import com.dailyapp.repository.UserRepository;
+import com.dailyapp.security.CachingUserDetailsService;
 import com.dailyapp.security.JwtService;
-import lombok.RequiredArgsConstructor;
+import com.dailyapp.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.ArrayList;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+/**
+ * 登录、注册需要计算 BCrypt 哈希（约 100ms CPU），在独立的有界线程池上执行，不占用请求线程
+ * 线程池队列满时立即拒绝（503），登录风暴不会拖慢其他接口；刷新令牌不涉及 BCrypt，直接在请求线程处理
+ */
 @Service
-@RequiredArgsConstructor
-public class AuthService implements UserDetailsService {
+public class AuthService implements MeterBinder {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final CachingUserDetailsService userDetailsService;
+    private final ThreadPoolExecutor executor;
+
+    public AuthService(UserRepository userRepository,
+                       PasswordEncoder passwordEncoder,
+                       JwtService jwtService,
+                       AuthenticationManager authenticationManager,
+                       CachingUserDetailsService userDetailsService,
+                       @Value("${auth.executor.pool-size:0}") int poolSize,
+                       @Value("${auth.executor.queue-capacity:20}") int queueCapacity) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtService = jwtService;
+        this.authenticationManager = authenticationManager;
+        this.userDetailsService = userDetailsService;
+        // 默认最多占用一半 CPU 核数，且不超过核数减一，其余留给其他接口；单核时只能是 1 个线程，靠低优先级让出 CPU
+        int cores = Runtime.getRuntime().availableProcessors();
+        if (poolSize <= 0) {
+            poolSize = Math.max(1, Math.min(cores / 2, cores - 1));
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "auth-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    // Linux 上需要 -XX:ThreadPriorityPolicy=1 才会映射为 nice 值，否则优先级不生效
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
 
     @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("用户不存在"));
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                new ArrayList<>()
-        );
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(executor, "auth", Collections.emptyList()).bindTo(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public CompletableFuture<AuthResponse> registerAsync(AuthRequest request) {
+        return submit(() -> register(request));
+    }
+
+    public CompletableFuture<AuthResponse> loginAsync(AuthRequest request) {
+        return submit(() -> login(request));
     }
 
     public AuthResponse register(AuthRequest request) {
@@ -45,22 +102,57 @@ public class AuthService implements UserDetailsService {
         user.setUsername(request.getUsername());
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         userRepository.save(user);
+        // 清除该用户名可能残留的缓存条目
+        userDetailsService.evict(user.getUsername());
 
-        UserDetails userDetails = loadUserByUsername(user.getUsername());
-        String token = jwtService.generateToken(userDetails);
-        return new AuthResponse(token, user.getUsername());
+        return issueTokens(UserPrincipal.fromUser(user));
     }
 
     public AuthResponse login(AuthRequest request) {
-        authenticationManager.authenticate(
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getUsername(),
                         request.getPassword()
                 )
         );
 
-        UserDetails userDetails = loadUserByUsername(request.getUsername());
-        String token = jwtService.generateToken(userDetails);
-        return new AuthResponse(token, request.getUsername());
+        // 认证结果中已带有用户主体，无需再查询用户
+        return issueTokens((UserPrincipal) authentication.getPrincipal());
+    }
+
+    /**
+     * 用刷新令牌换取新的访问令牌和刷新令牌，只验签和按主键查询用户，不计算 BCrypt
+     */
+    public AuthResponse refresh(String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtService.extractAllClaims(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new RuntimeException("刷新令牌无效或已过期");
+        }
+        Long userId = jwtService.extractUserId(claims);
+        if (!jwtService.isRefreshToken(claims) || userId == null) {
+            throw new RuntimeException("刷新令牌无效或已过期");
+        }
+
+        // 用户已删除或改名后，旧的刷新令牌失效
+        User user = userRepository.findById(userId)
+                .filter(found -> found.getUsername().equals(claims.getSubject()))
+                .orElseThrow(() -> new RuntimeException("用户不存在"));
+        return issueTokens(UserPrincipal.fromUser(user));
+    }
+
+    private AuthResponse issueTokens(UserPrincipal principal) {
+        String token = jwtService.generateToken(principal);
+        String refreshToken = jwtService.generateRefreshToken(principal);
+        return new AuthResponse(token, principal.getUsername(), refreshToken);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "登录请求过多，请稍后重试");
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,176 @@
+package com.dailyapp.service;
+
+import com.dailyapp.model.ChangeLogEntry;
+import com.dailyapp.model.ChangeLogEntry.EntityType;
+import com.dailyapp.model.ChangeLogEntry.Operation;
+import com.dailyapp.repository.ChangeLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * 记录数据变更，供增量同步使用
+ * 需在业务写操作的同一事务中调用，业务回滚时变更记录一并回滚
+ * 写入前锁定用户行直到事务结束，同一用户的变更按提交顺序分配ID，客户端游标之前不会再出现晚提交的记录
+ * 保存后发布变更事件，事务提交后由 EventStreamService 推送给在线客户端
+ * 超过保留天数的记录定期删除，游标早于保留下限的客户端需全量同步
+ */
+@Slf4j
+@Service
+@Transactional
+public class ChangeLogService {
+
+    private static final String LOCK_USER_SQL = "SELECT id FROM users WHERE id = ? FOR UPDATE";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO change_log (user_id, entity_type, entity_id, operation, changed_at) VALUES (?, ?, ?, ?, ?)";
+
+    // 始终保留最新的一条，最小ID即可作为保留下限
+    private static final String EXPIRED_UP_TO_SQL =
+            "SELECT MAX(id) FROM change_log WHERE changed_at < ? AND id < (SELECT MAX(id) FROM change_log)";
+
+    private static final String PURGE_SQL = "DELETE FROM change_log WHERE id <= ? LIMIT ?";
+
+    // 每次删除的行数，分批提交避免一次删除过多行
+    private static final int PURGE_CHUNK = 10000;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final int retentionDays;
+
+    public ChangeLogService(ChangeLogRepository changeLogRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            JdbcTemplate jdbcTemplate,
+                            @Value("${sync.change-log.retention-days:30}") int retentionDays) {
+        this.changeLogRepository = changeLogRepository;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionDays = retentionDays;
+    }
+
+    public void recordUpsert(Long userId, EntityType entityType, Long entityId) {
+        record(userId, entityType, entityId, Operation.UPSERT);
+    }
+
+    public void recordDelete(Long userId, EntityType entityType, Long entityId) {
+        record(userId, entityType, entityId, Operation.DELETE);
+    }
+
+    public void recordUpserts(Long userId, EntityType entityType, List<Long> entityIds) {
+        recordAll(userId, entityType, entityIds, Operation.UPSERT);
+    }
+
+    public void recordDeletes(Long userId, EntityType entityType, List<Long> entityIds) {
+        recordAll(userId, entityType, entityIds, Operation.DELETE);
+    }
+
+    /**
+     * 新客户端的起始游标：该用户最新的变更ID，不低于保留下限
+     */
+    @Transactional(readOnly = true)
+    public Long currentCursor(Long userId) {
+        return Math.max(changeLogRepository.findLatestIdByUserId(userId), changeLogRepository.findRetainedFloor());
+    }
+
+    /**
+     * 游标之后的变更是否可能已被清理
+     */
+    @Transactional(readOnly = true)
+    public boolean isBeforeRetainedFloor(Long since) {
+        return since < changeLogRepository.findRetainedFloor();
+    }
+
+    /**
+     * 删除超过保留天数的变更记录，按ID从小到大分批删除，每批单独提交
+     */
+    @Scheduled(fixedDelayString = "${sync.change-log.purge-interval:3600000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void purgeExpired() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        Long upToId = jdbcTemplate.queryForObject(EXPIRED_UP_TO_SQL, Long.class, cutoff);
+        if (upToId == null) {
+            return;
+        }
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, upToId, PURGE_CHUNK);
+            purged += deleted;
+        } while (deleted == PURGE_CHUNK);
+        log.info("已删除 {} 条超过 {} 天的变更记录，保留下限 {}", purged, retentionDays, upToId);
+    }
+
+    /**
+     * 一个事务写入多个用户的变更时先调用，按用户ID顺序加锁，避免与单用户的请求事务互相等待
+     */
+    public void lockUsers(Collection<Long> userIds) {
+        new TreeSet<>(userIds).forEach(this::lockUser);
+    }
+
+    // 同一用户的后一个写事务在此等待前一个提交或回滚，自增ID的顺序即提交顺序
+    private void lockUser(Long userId) {
+        jdbcTemplate.queryForList(LOCK_USER_SQL, Long.class, userId);
+    }
+
+    private void record(Long userId, EntityType entityType, Long entityId, Operation operation) {
+        lockUser(userId);
+        ChangeLogEntry entry = new ChangeLogEntry();
+        entry.setUserId(userId);
+        entry.setEntityType(entityType);
+        entry.setEntityId(entityId);
+        entry.setOperation(operation);
+        changeLogRepository.save(entry);
+        eventPublisher.publishEvent(entry);
+    }
+
+    // 变更日志使用自增ID，由 Hibernate 保存时无法批量插入，批量记录时直接以 JDBC 批次写入
+    private void recordAll(Long userId, EntityType entityType, List<Long> entityIds, Operation operation) {
+        if (entityIds.isEmpty()) {
+            return;
+        }
+        lockUser(userId);
+        LocalDateTime changedAt = LocalDateTime.now();
+        List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, new String[]{"id"})) {
+                for (Long entityId : entityIds) {
+                    statement.setLong(1, userId);
+                    statement.setString(2, entityType.name());
+                    statement.setLong(3, entityId);
+                    statement.setString(4, operation.name());
+                    statement.setTimestamp(5, Timestamp.valueOf(changedAt));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                List<Long> generatedIds = new ArrayList<>(entityIds.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        generatedIds.add(keys.getLong(1));
+                    }
+                }
+                return generatedIds;
+            }
+        });
+
+        for (int i = 0; i < entityIds.size(); i++) {
+            eventPublisher.publishEvent(new ChangeLogEntry(ids.get(i), userId, entityType, entityIds.get(i),
+                    operation, changedAt));
+        }
+    }
+}
@@ -1,57 +1,86 @@
 package com.dailyapp.service;
 
-import com.dailyapp.model.CheckIn;
-import com.dailyapp.model.User;
+import com.dailyapp.dto.CheckInResponse;
+import com.dailyapp.dto.CheckInSummaryResponse;
 import com.dailyapp.repository.CheckInRepository;
-import com.dailyapp.repository.UserRepository;
+import com.dailyapp.util.ActivityDays;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collections;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class CheckInService {
 
+    // 一条语句完成签到：当天没有记录时插入，连续天数取昨天的记录加一，并返回插入的行
+    private static final String CHECK_IN_SQL = "SELECT id, streak_count FROM FINAL TABLE ("
+            + "INSERT INTO check_ins (user_id, date, time, streak_count, created_at, updated_at, version) "
+            + "SELECT ?, ?, ?, COALESCE((SELECT y.streak_count FROM check_ins y WHERE y.user_id = ? AND y.date = ?), 0) + 1, ?, ?, 0 "
+            + "WHERE NOT EXISTS (SELECT 1 FROM check_ins t WHERE t.user_id = ? AND t.date = ?))";
+
     private final CheckInRepository checkInRepository;
-    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ActivityService activityService;
+    private final DataVersionService dataVersionService;
 
     @Transactional
-    public CheckIn checkIn(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("用户不存在"));
-
+    public CheckInResponse checkIn(Long userId) {
         LocalDate today = LocalDate.now();
-        LocalTime now = LocalTime.now();
-        // 检查是否已经打卡
-        if (checkInRepository.findByUserIdAndDate(userId, today).isPresent()) {
-            throw new RuntimeException("今天已经打卡了");
-        }
+        LocalTime time = LocalTime.now();
+        LocalDateTime now = LocalDateTime.of(today, time);
 
-        // 获取昨天的打卡记录
-        LocalDate yesterday = today.minusDays(1);
-        CheckIn yesterdayCheckIn = checkInRepository.findByUserIdAndDate(userId, yesterday)
-                .orElse(null);
-
-        // 计算连续打卡天数
-        int streakCount = (yesterdayCheckIn != null) ? yesterdayCheckIn.getStreakCount() + 1 : 1;
-
-        CheckIn checkIn = new CheckIn();
-        checkIn.setUser(user);
-        checkIn.setDate(today);
-        checkIn.setTime(now);
-        checkIn.setStreakCount(streakCount);
+        List<CheckInResponse> inserted;
+        try {
+            inserted = jdbcTemplate.query(CHECK_IN_SQL,
+                    (rs, rowNum) -> new CheckInResponse(rs.getLong("id"), userId, today, time,
+                            rs.getInt("streak_count"), now),
+                    userId, today, time, userId, today.minusDays(1), now, now, userId, today);
+        } catch (DuplicateKeyException e) {
+            // 并发签到时另一请求先插入，由 (user_id, date) 唯一索引拦截
+            inserted = Collections.emptyList();
+        }
+        if (inserted.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "今天已经打卡了");
+        }
 
-        return checkInRepository.save(checkIn);
+        activityService.recordCheckInDayAfterCommit(userId, today);
+        dataVersionService.bumpAfterCommit(userId);
+        return inserted.get(0);
     }
 
+    /**
+     * 当前连续签到天数：今天还没签到时，截止到昨天的连续天数仍然有效
+     */
     public Integer getCurrentStreak(Long userId) {
-        return checkInRepository.findMaxStreakCountByUserId(userId);
+        return currentStreak(activityService.getSnapshot(userId).getCheckInDays(), LocalDate.now());
+    }
+
+    public CheckInSummaryResponse getSummary(Long userId) {
+        ActivityDays checkInDays = activityService.getSnapshot(userId).getCheckInDays();
+        LocalDate today = LocalDate.now();
+        return new CheckInSummaryResponse(
+                currentStreak(checkInDays, today),
+                checkInDays.longestStreak(),
+                checkInDays.totalDays(),
+                checkInDays.contains(today));
     }
 
     public boolean hasCheckedInToday(Long userId) {
-        return checkInRepository.findByUserIdAndDate(userId, LocalDate.now()).isPresent();
+        return checkInRepository.existsByUserIdAndDate(userId, LocalDate.now());
+    }
+
+    private int currentStreak(ActivityDays checkInDays, LocalDate today) {
+        int streak = checkInDays.streakEndingAt(today);
+        return streak > 0 ? streak : checkInDays.streakEndingAt(today.minusDays(1));
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+package com.dailyapp.service;
+
+import com.dailyapp.dto.DashboardResponse;
+import com.dailyapp.dto.StatisticsResponse;
+import com.dailyapp.model.TodoCollection;
+import com.dailyapp.model.TodoItem;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 首页数据聚合：互不依赖的查询在有界线程池上并行执行，各自使用独立的只读事务
+ * 线程池队列满时由请求线程自己执行，退化为顺序查询
+ */
+@Service
+public class DashboardService implements MeterBinder {
+
+    private final TodoItemService todoItemService;
+    private final TodoCollectionService todoCollectionService;
+    private final FocusStatsService focusStatsService;
+    private final CheckInService checkInService;
+    private final ThreadPoolExecutor executor;
+
+    public DashboardService(TodoItemService todoItemService,
+                            TodoCollectionService todoCollectionService,
+                            FocusStatsService focusStatsService,
+                            CheckInService checkInService,
+                            @Value("${dashboard.executor.pool-size:4}") int poolSize,
+                            @Value("${dashboard.executor.queue-capacity:100}") int queueCapacity) {
+        this.todoItemService = todoItemService;
+        this.todoCollectionService = todoCollectionService;
+        this.focusStatsService = focusStatsService;
+        this.checkInService = checkInService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(executor, "dashboard", Collections.emptyList()).bindTo(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public DashboardResponse getDashboard(Long userId) {
+        CompletableFuture<List<TodoItem>> todos = CompletableFuture.supplyAsync(
+                () -> todoItemService.getUserTodoItems(userId), executor);
+        CompletableFuture<List<TodoCollection>> collections = CompletableFuture.supplyAsync(
+                () -> todoCollectionService.getUserTodoCollections(userId), executor);
+        CompletableFuture<StatisticsResponse> statistics = CompletableFuture.supplyAsync(() -> {
+            StatisticsResponse response = focusStatsService.getStatistics(userId);
+            response.setCurrentStreak(checkInService.getCurrentStreak(userId));
+            return response;
+        }, executor);
+        CompletableFuture<Boolean> checkedInToday = CompletableFuture.supplyAsync(
+                () -> checkInService.hasCheckedInToday(userId), executor);
+
+        DashboardResponse response = new DashboardResponse();
+        try {
+            response.setTodos(todos.join());
+            response.setCollections(collections.join());
+            response.setStatistics(statistics.join());
+            response.setCheckedInToday(checkedInToday.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+
+        // 计数直接由已加载的列表得出，不再单独查询
+        long focusTime = 0;
+        int completed = 0;
+        for (TodoItem todo : response.getTodos()) {
+            if (Boolean.TRUE.equals(todo.getIsCompleted())) {
+                completed++;
+                if (todo.getFocusTime() != null) {
+                    focusTime += todo.getFocusTime();
+                }
+            }
+        }
+        response.setTodoTotal(response.getTodos().size());
+        response.setTodoCompleted(completed);
+        response.setTodoFocusTime(focusTime);
+        response.setCollectionTotal(response.getCollections().size());
+        response.setCollectionCompleted((int) response.getCollections().stream()
+                .filter(collection -> collection.getCompletedTime() != null)
+                .count());
+        return response;
+    }
+}
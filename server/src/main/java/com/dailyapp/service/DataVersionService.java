@@ -0,0 +1,64 @@
+package com.dailyapp.service;
+
+import com.dailyapp.model.ChangeLogEntry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户数据版本号，用于生成列表和统计接口的 ETag
+ * 版本号在写事务提交后递增；读取时先取版本号再查询，保证 ETag 不会对应比它更旧的数据
+ * 版本号只保存在内存中，ETag 带上启动时间，重启后客户端缓存的 ETag 全部失效
+ */
+@Service
+public class DataVersionService {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    // 待办、合集、子任务、专注记录的写入都会记录变更日志
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onChange(ChangeLogEntry entry) {
+        bump(entry.getUserId());
+    }
+
+    /**
+     * 没有变更日志的写入（签到、写缓冲中的专注时长）显式调用，有事务时提交后再递增
+     */
+    public void bumpAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump(userId);
+            }
+        });
+    }
+
+    public String etag(Long userId) {
+        return "\"" + userId + "-" + epoch + "-" + versions.getOrDefault(userId, 0L) + "\"";
+    }
+
+    /**
+     * 内容与当天日期有关（今日专注时长、连续天数）的接口，跨天后 ETag 随之变化
+     */
+    public String etag(Long userId, LocalDate date) {
+        return "\"" + userId + "-" + epoch + "-" + versions.getOrDefault(userId, 0L) + "-" + date + "\"";
+    }
+
+    // 全局递增，同一用户的版本号不会重复；并发递增时保留较大值
+    private void bump(Long userId) {
+        versions.merge(userId, sequence.incrementAndGet(), Math::max);
+    }
+}
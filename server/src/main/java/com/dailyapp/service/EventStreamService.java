@@ -0,0 +1,293 @@
+package com.dailyapp.service;
+
+import com.dailyapp.dto.ChangeEvent;
+import com.dailyapp.model.ChangeLogEntry;
+import com.dailyapp.model.ChangeLogEntry.Operation;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按用户推送数据变更的事件流（SSE）
+ * 连接建立后不占用请求线程，只保存在注册表中；变更事务提交后放入该用户的待推送队列，
+ * 由推送线程池按用户逐条写出：同一用户的事件保持提交顺序
+ * 写连接会阻塞到客户端读走数据为止，实际写出交给写线程池，推送线程最多等待 send-timeout，
+ * 超时的连接被断开，客户端停止读取时不会占住推送线程、拖慢其他用户
+ */
+@Slf4j
+@Service
+public class EventStreamService implements MeterBinder {
+
+    private final ChangeLogService changeLogService;
+    private final SyncService syncService;
+    private final long emitterTimeout;
+    private final long sendTimeout;
+    private final int queueCapacity;
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor sender;
+    private final ThreadPoolExecutor writer;
+
+    public EventStreamService(ChangeLogService changeLogService,
+                              SyncService syncService,
+                              @Value("${events.emitter-timeout:1800000}") long emitterTimeout,
+                              @Value("${events.sender-threads:4}") int senderThreads,
+                              @Value("${events.queue-capacity:1000}") int queueCapacity,
+                              @Value("${events.send-timeout:5000}") long sendTimeout,
+                              @Value("${events.writer-threads:64}") int writerThreads) {
+        this.changeLogService = changeLogService;
+        this.syncService = syncService;
+        this.emitterTimeout = emitterTimeout;
+        this.sendTimeout = sendTimeout;
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadCount = new AtomicInteger();
+        // 每个用户同时最多只有一个推送任务在排队，任务数不超过在线用户数
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "event-stream-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // 超时断开后连接上最多还剩一次写入，写线程阻塞到 Tomcat 的写超时为止；线程数满时新的写入直接断开连接
+        AtomicInteger writerCount = new AtomicInteger();
+        this.writer = new ThreadPoolExecutor(0, writerThreads, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "event-stream-writer-" + writerCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("events.connections", this, EventStreamService::getConnectionCount)
+                .description("事件流在线连接数")
+                .register(registry);
+        Gauge.builder("events.queue.size", this, EventStreamService::getPendingCount)
+                .description("等待推送的事件数")
+                .register(registry);
+    }
+
+    /**
+     * 单个用户的连接和待推送队列
+     */
+    private static class Channel {
+        private final Set<SseEmitter> emitters = new CopyOnWriteArraySet<>();
+        // 以下字段由 Channel 自身加锁保护
+        private final Queue<Runnable> pending = new ArrayDeque<>();
+        private boolean draining;
+    }
+
+    /**
+     * 建立事件流连接，首条 ready 事件携带当前游标
+     * 断线重连后客户端用该游标调用 /sync/changes 补齐断线期间的变更
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeout);
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(() -> remove(userId, emitter));
+        emitter.onError(error -> remove(userId, emitter));
+        channels.compute(userId, (id, channel) -> {
+            Channel target = channel == null ? new Channel() : channel;
+            target.emitters.add(emitter);
+            return target;
+        });
+
+        Long cursor = changeLogService.currentCursor(userId);
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("ready")
+                    .data(Collections.singletonMap("cursor", cursor), MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            remove(userId, emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    /**
+     * 变更事务提交后推送；回滚的变更不会推送
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onChange(ChangeLogEntry entry) {
+        enqueue(entry.getUserId(), () -> push(entry));
+    }
+
+    // 定时发送注释行，防止代理关闭空闲连接，并及时清理已断开的连接
+    @Scheduled(fixedDelayString = "${events.heartbeat-interval:25000}")
+    public void heartbeat() {
+        channels.keySet().forEach(userId -> enqueue(userId, () -> {
+            Channel channel = channels.get(userId);
+            if (channel != null) {
+                channel.emitters.forEach(emitter -> send(userId, emitter, SseEmitter.event().comment("ping")));
+            }
+        }));
+    }
+
+    public int getConnectionCount() {
+        return channels.values().stream().mapToInt(channel -> channel.emitters.size()).sum();
+    }
+
+    public int getPendingCount() {
+        return channels.values().stream().mapToInt(channel -> {
+            synchronized (channel) {
+                return channel.pending.size();
+            }
+        }).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        channels.keySet().forEach(this::completeAll);
+        writer.shutdown();
+    }
+
+    private void enqueue(Long userId, Runnable task) {
+        Channel channel = channels.get(userId);
+        if (channel == null) {
+            return;
+        }
+        boolean overflow = false;
+        boolean schedule = false;
+        synchronized (channel) {
+            if (channel.pending.size() >= queueCapacity) {
+                overflow = true;
+                channel.pending.clear();
+            } else {
+                channel.pending.add(task);
+                schedule = !channel.draining;
+                channel.draining = true;
+            }
+        }
+        if (overflow) {
+            // 推送积压（连接写阻塞或客户端过慢）：只断开该用户的连接，客户端重连后按游标补齐
+            log.warn("用户 {} 的事件推送队列已满，断开事件流", userId);
+            completeAll(userId);
+            return;
+        }
+        if (schedule) {
+            sender.execute(() -> drain(channel));
+        }
+    }
+
+    // 依次执行同一用户的推送任务，队列为空时退出，下次入队再重新提交
+    private void drain(Channel channel) {
+        while (true) {
+            Runnable task;
+            synchronized (channel) {
+                task = channel.pending.poll();
+                if (task == null) {
+                    channel.draining = false;
+                    return;
+                }
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("事件推送失败", e);
+            }
+        }
+    }
+
+    private void push(ChangeLogEntry entry) {
+        Channel channel = channels.get(entry.getUserId());
+        if (channel == null || channel.emitters.isEmpty()) {
+            return;
+        }
+
+        // 推送时读取实体的最新数据，同一实体连续变更时内容可能领先于本条游标
+        Object data = entry.getOperation() == Operation.UPSERT
+                ? syncService.findEntity(entry.getEntityType(), entry.getEntityId())
+                : null;
+        ChangeEvent event = new ChangeEvent(entry.getId(), entry.getEntityType(), entry.getEntityId(),
+                data == null ? Operation.DELETE : entry.getOperation(), data);
+        for (SseEmitter emitter : channel.emitters) {
+            send(entry.getUserId(), emitter, SseEmitter.event()
+                    .id(String.valueOf(entry.getId()))
+                    .name("change")
+                    .data(event, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void send(Long userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        CompletableFuture<Void> write;
+        try {
+            write = CompletableFuture.runAsync(() -> {
+                try {
+                    emitter.send(event);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, writer);
+        } catch (RejectedExecutionException e) {
+            log.warn("事件流写线程已满，断开用户 {} 的一个连接", userId);
+            remove(userId, emitter);
+            close(emitter);
+            return;
+        }
+        try {
+            write.get(sendTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 客户端停止读取：不再向该连接推送，阻塞的写入结束后关闭连接，客户端重连后按游标补齐
+            log.warn("用户 {} 的事件流连接 {} 毫秒内未写完，断开该连接", userId, sendTimeout);
+            remove(userId, emitter);
+            write.whenComplete((result, error) -> emitter.complete());
+        } catch (ExecutionException e) {
+            // 客户端已断开
+            remove(userId, emitter);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void completeAll(Long userId) {
+        Channel channel = channels.remove(userId);
+        if (channel != null) {
+            channel.emitters.forEach(this::close);
+        }
+    }
+
+    // 连接上可能有阻塞中的写入，complete 需要等它结束，交给写线程执行，不阻塞调用方
+    private void close(SseEmitter emitter) {
+        try {
+            writer.execute(emitter::complete);
+        } catch (RejectedExecutionException e) {
+            // 写线程已满或已关闭，连接在 emitter-timeout 后由容器关闭
+        }
+    }
+
+    private void remove(Long userId, SseEmitter emitter) {
+        channels.computeIfPresent(userId, (id, channel) -> {
+            channel.emitters.remove(emitter);
+            return channel.emitters.isEmpty() ? null : channel;
+        });
+    }
+}
@@ -0,0 +1,277 @@
+package com.dailyapp.service;
+
+import com.dailyapp.model.CheckIn;
+import com.dailyapp.model.FocusSession;
+import com.dailyapp.model.TodoCollection;
+import com.dailyapp.model.TodoCollectionItem;
+import com.dailyapp.model.TodoItem;
+import com.dailyapp.repository.CheckInRepository;
+import com.dailyapp.repository.FocusSessionRepository;
+import com.dailyapp.repository.TodoCollectionItemRepository;
+import com.dailyapp.repository.TodoCollectionRepository;
+import com.dailyapp.repository.TodoItemRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 用户数据导出：逐行流式写出，不在内存中组装完整列表
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    // 每读取这么多行清空一次持久化上下文，避免已读实体堆积
+    private static final int CLEAR_INTERVAL = 500;
+
+    private static final List<String> TODO_COLUMNS = Arrays.asList(
+            "id", "title", "description", "type", "duration", "isCompleted", "isImportant", "isUrgent",
+            "focusTime", "createTime", "completedTime");
+    private static final List<String> COLLECTION_COLUMNS = Arrays.asList(
+            "id", "title", "description", "isSequenceActive", "currentTaskIndex", "createTime", "completedTime");
+    private static final List<String> COLLECTION_ITEM_COLUMNS = Arrays.asList(
+            "id", "collectionId", "title", "description", "durationMinutes", "isCompleted", "orderIndex",
+            "actualFocusTime", "createTime", "completedTime");
+    private static final List<String> FOCUS_SESSION_COLUMNS = Arrays.asList(
+            "id", "startTime", "endTime", "durationMinutes", "taskDescription", "createdAt");
+    private static final List<String> CHECK_IN_COLUMNS = Arrays.asList(
+            "id", "date", "time", "streakCount");
+
+    private final TodoItemRepository todoItemRepository;
+    private final TodoCollectionRepository todoCollectionRepository;
+    private final TodoCollectionItemRepository todoCollectionItemRepository;
+    private final FocusSessionRepository focusSessionRepository;
+    private final CheckInRepository checkInRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson;charset=UTF-8", "ndjson"),
+        // 每种数据一个 CSV 文件，打包为 zip
+        CSV("application/zip", "zip");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static ExportFormat of(String value) {
+            for (ExportFormat format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "不支持的导出格式");
+        }
+    }
+
+    public void export(Long userId, ExportFormat format, OutputStream outputStream) throws IOException {
+        RecordWriter recordWriter = format == ExportFormat.NDJSON
+                ? new NdjsonRecordWriter(objectMapper, outputStream)
+                : new CsvRecordWriter(outputStream);
+
+        // 响应体在异步线程中写出，需要自行开启只读事务以保持游标打开
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                writeSection(recordWriter, "todo", TODO_COLUMNS,
+                        todoItemRepository.streamByUserId(userId), this::todoValues);
+                writeSection(recordWriter, "collection", COLLECTION_COLUMNS,
+                        todoCollectionRepository.streamByUserId(userId), this::collectionValues);
+                writeSection(recordWriter, "collection_item", COLLECTION_ITEM_COLUMNS,
+                        todoCollectionItemRepository.streamByUserId(userId), this::collectionItemValues);
+                writeSection(recordWriter, "focus_session", FOCUS_SESSION_COLUMNS,
+                        focusSessionRepository.streamByUserId(userId), this::focusSessionValues);
+                writeSection(recordWriter, "check_in", CHECK_IN_COLUMNS,
+                        checkInRepository.streamByUserId(userId), this::checkInValues);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        recordWriter.finish();
+    }
+
+    private <T> void writeSection(RecordWriter recordWriter, String type, List<String> columns,
+                                  Stream<T> rows, Function<T, Object[]> valuesOf) throws IOException {
+        recordWriter.beginSection(type, columns);
+        try (Stream<T> stream = rows) {
+            Iterator<T> iterator = stream.iterator();
+            int count = 0;
+            while (iterator.hasNext()) {
+                recordWriter.write(type, columns, valuesOf.apply(iterator.next()));
+                if (++count % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        entityManager.clear();
+    }
+
+    private Object[] todoValues(TodoItem item) {
+        return new Object[]{item.getId(), item.getTitle(), item.getDescription(), item.getType(), item.getDuration(),
+                item.getIsCompleted(), item.getIsImportant(), item.getIsUrgent(), item.getFocusTime(),
+                item.getCreateTime(), item.getCompletedTime()};
+    }
+
+    private Object[] collectionValues(TodoCollection collection) {
+        return new Object[]{collection.getId(), collection.getTitle(), collection.getDescription(),
+                collection.getIsSequenceActive(), collection.getCurrentTaskIndex(), collection.getCreateTime(),
+                collection.getCompletedTime()};
+    }
+
+    private Object[] collectionItemValues(TodoCollectionItem item) {
+        return new Object[]{item.getId(), item.getCollectionId(), item.getTitle(), item.getDescription(),
+                item.getDurationMinutes(), item.getIsCompleted(), item.getOrderIndex(), item.getActualFocusTime(),
+                item.getCreateTime(), item.getCompletedTime()};
+    }
+
+    private Object[] focusSessionValues(FocusSession session) {
+        return new Object[]{session.getId(), session.getStartTime(), session.getEndTime(),
+                session.getDurationMinutes(), session.getTaskDescription(), session.getCreatedAt()};
+    }
+
+    private Object[] checkInValues(CheckIn checkIn) {
+        return new Object[]{checkIn.getId(), checkIn.getDate(), checkIn.getTime(), checkIn.getStreakCount()};
+    }
+
+    private interface RecordWriter {
+        void beginSection(String type, List<String> columns) throws IOException;
+
+        void write(String type, List<String> columns, Object[] values) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * 每行一个JSON对象，recordType 字段标明数据类型
+     */
+    private static class NdjsonRecordWriter implements RecordWriter {
+        private final ObjectMapper objectMapper;
+        private final Writer writer;
+
+        NdjsonRecordWriter(ObjectMapper objectMapper, OutputStream outputStream) {
+            this.objectMapper = objectMapper;
+            this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void beginSection(String type, List<String> columns) {
+        }
+
+        @Override
+        public void write(String type, List<String> columns, Object[] values) throws IOException {
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("recordType", type);
+            for (int i = 0; i < columns.size(); i++) {
+                record.put(columns.get(i), values[i]);
+            }
+            writer.write(objectMapper.writeValueAsString(record));
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * 每种数据写入 zip 中的一个 CSV 文件（如 todo.csv），文件只有一行表头
+     */
+    private static class CsvRecordWriter implements RecordWriter {
+        private final ZipOutputStream zip;
+        private final Writer writer;
+
+        CsvRecordWriter(OutputStream outputStream) {
+            this.zip = new ZipOutputStream(outputStream, StandardCharsets.UTF_8);
+            this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void beginSection(String type, List<String> columns) throws IOException {
+            // 先写出上一个文件的缓冲内容，putNextEntry 会结束上一个文件
+            writer.flush();
+            zip.putNextEntry(new ZipEntry(type + ".csv"));
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(String type, List<String> columns, Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writer.write(escape(format(values[i])));
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+            zip.finish();
+        }
+
+        // 与 JSON 输出保持一致，时间始终带秒
+        private static String format(Object value) {
+            if (value instanceof LocalDateTime) {
+                return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format((LocalDateTime) value);
+            }
+            if (value instanceof LocalTime) {
+                return DateTimeFormatter.ISO_LOCAL_TIME.format((LocalTime) value);
+            }
+            return value.toString();
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
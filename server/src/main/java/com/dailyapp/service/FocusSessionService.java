@@ -1,21 +1,32 @@
 package com.dailyapp.service;
 
+import com.dailyapp.dto.CursorPage;
+import com.dailyapp.dto.FocusHistogramResponse;
+import com.dailyapp.dto.FocusHistogramResponse.Granularity;
 import com.dailyapp.dto.FocusSessionRequest;
+import com.dailyapp.dto.FocusSessionResponse;
+import com.dailyapp.dto.PageCursor;
+import com.dailyapp.model.ChangeLogEntry.EntityType;
 import com.dailyapp.model.FocusSession;
 import com.dailyapp.model.User;
 import com.dailyapp.repository.FocusSessionRepository;
 import com.dailyapp.repository.UserRepository;
+import com.dailyapp.util.ActivityDays;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -23,85 +34,148 @@ public class FocusSessionService {
 
     private final FocusSessionRepository focusSessionRepository;
     private final UserRepository userRepository;
+    private final FocusStatsService focusStatsService;
+    private final ChangeLogService changeLogService;
+    private final ActivityService activityService;
+    // 直方图最多返回的桶数
+    public static final int MAX_HISTOGRAM_BUCKETS = 1000;
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     @Transactional
-    public FocusSession createSession(Long userId, FocusSessionRequest request) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("用户不存在"));
+    public FocusSessionResponse createSession(Long userId, FocusSessionRequest request) {
+        // 只需要外键，不查询用户
+        User user = userRepository.getReferenceById(userId);
 
         FocusSession session = new FocusSession();
         session.setUser(user);
         session.setStartTime(LocalDateTime.parse(request.getStartTime(), DATE_TIME_FORMATTER));
         session.setEndTime(LocalDateTime.parse(request.getEndTime(), DATE_TIME_FORMATTER));
         session.setDurationMinutes(request.getDurationMinutes());
+        if (!ActivityDays.supports(session.getStartTime().toLocalDate())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "专注开始时间超出可记录范围");
+        }
         session.setTaskDescription(request.getTaskDescription());
 
-        return focusSessionRepository.save(session);
+        FocusSession savedSession = focusSessionRepository.save(session);
+        // 同一事务内更新统计汇总
+        focusStatsService.recordSession(userId, savedSession.getStartTime().toLocalDate(), savedSession.getDurationMinutes());
+        activityService.recordFocusDay(userId, savedSession.getStartTime().toLocalDate());
+        changeLogService.recordUpsert(userId, EntityType.FOCUS_SESSION, savedSession.getId());
+        return FocusSessionResponse.from(savedSession);
+    }
+
+    public List<FocusSessionResponse> getDailySessions(Long userId, LocalDate date) {
+        return focusSessionRepository.findByUserIdAndStartTimeInRange(
+                userId, date.atStartOfDay(), date.plusDays(1).atStartOfDay());
     }
 
-    public List<FocusSession> getDailySessions(Long userId, LocalDate date) {
-        LocalDateTime start = date.atStartOfDay();
-        LocalDateTime end = date.atTime(LocalTime.MAX);
-        return focusSessionRepository.findByUserIdAndStartTimeBetween(userId, start, end);
+    // 结束边界取下一周/下一月的零点且不包含，避免多算一天
+    public List<FocusSessionResponse> getWeeklySessions(Long userId, LocalDate weekStart) {
+        return focusSessionRepository.findByUserIdAndStartTimeInRange(
+                userId, weekStart.atStartOfDay(), weekStart.plusWeeks(1).atStartOfDay());
     }
 
-    public List<FocusSession> getWeeklySessions(Long userId, LocalDate weekStart) {
-        LocalDateTime start = weekStart.atStartOfDay();
-        LocalDateTime end = weekStart.plusDays(7).atTime(LocalTime.MAX);
-        return focusSessionRepository.findByUserIdAndStartTimeBetween(userId, start, end);
+    public List<FocusSessionResponse> getMonthlySessions(Long userId, LocalDate monthStart) {
+        return focusSessionRepository.findByUserIdAndStartTimeInRange(
+                userId, monthStart.atStartOfDay(), monthStart.plusMonths(1).atStartOfDay());
     }
 
-    public List<FocusSession> getMonthlySessions(Long userId, LocalDate monthStart) {
-        LocalDateTime start = monthStart.atStartOfDay();
-        LocalDateTime end = monthStart.plusMonths(1).atTime(LocalTime.MAX);
-        return focusSessionRepository.findByUserIdAndStartTimeBetween(userId, start, end);
+    /**
+     * 按小时/天/周/月统计 [from, to] 日期范围内的专注时长和次数
+     * 小时粒度在数据库按小时分组，其余粒度按天分组后再归入所在的周/月
+     */
+    public FocusHistogramResponse getHistogram(Long userId, LocalDate from, LocalDate to, Granularity granularity) {
+        if (to.isBefore(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "结束日期不能早于开始日期");
+        }
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+
+        // 先生成全部桶，没有专注记录的时间段返回 0
+        Map<LocalDateTime, FocusHistogramResponse.Bucket> buckets = new LinkedHashMap<>();
+        for (LocalDateTime bucketStart = bucketStart(start, granularity);
+             bucketStart.isBefore(end);
+             bucketStart = nextBucket(bucketStart, granularity)) {
+            if (buckets.size() >= MAX_HISTOGRAM_BUCKETS) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "时间范围过大，请缩小范围或使用更大的分桶粒度");
+            }
+            buckets.put(bucketStart, new FocusHistogramResponse.Bucket(bucketStart, 0, 0));
+        }
+
+        if (granularity == Granularity.HOUR) {
+            for (Object[] row : focusSessionRepository.aggregateHourlyByUserIdAndTimeRange(userId, start, end)) {
+                LocalDateTime hour = toLocalDate(row[0]).atTime(((Number) row[1]).intValue(), 0);
+                addToBucket(buckets.get(hour), row[2], row[3]);
+            }
+        } else {
+            for (Object[] row : focusSessionRepository.aggregateDailyByUserIdAndTimeRange(userId, start, end)) {
+                LocalDateTime day = toLocalDate(row[0]).atStartOfDay();
+                addToBucket(buckets.get(bucketStart(day, granularity)), row[1], row[2]);
+            }
+        }
+
+        return new FocusHistogramResponse(granularity, from, to, new ArrayList<>(buckets.values()));
     }
 
     public Integer getTotalDuration(Long userId, LocalDateTime start, LocalDateTime end) {
         return focusSessionRepository.sumDurationByUserIdAndTimeRange(userId, start, end);
     }
 
-    public List<FocusSession> getAllSessions(Long userId) {
+    public List<FocusSessionResponse> getAllSessions(Long userId) {
         return focusSessionRepository.findByUserIdOrderByStartTimeDesc(userId);
     }
 
-    public Integer getContinuousFocusDays(Long userId) {
-        // 获取用户所有专注记录，按日期分组
-        List<FocusSession> sessions = focusSessionRepository.findByUserIdOrderByStartTimeDesc(userId);
-        if (sessions.isEmpty()) {
-            return 0;
+    public CursorPage<FocusSessionResponse> getSessionsPage(Long userId, String cursor, Integer size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        // 多取一条用于判断是否还有下一页
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<FocusSessionResponse> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = focusSessionRepository.findFirstPageByUserId(userId, limit);
+        } else {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            rows = focusSessionRepository.findPageByUserIdAfterCursor(userId, pageCursor.getTime(), pageCursor.getId(), limit);
         }
+        return CursorPage.of(rows, pageSize, session -> PageCursor.encode(session.getStartTime(), session.getId()));
+    }
 
-        // 按日期分组统计
-        Set<LocalDate> focusDates = sessions.stream()
-                .map(session -> session.getStartTime().toLocalDate())
-                .collect(java.util.stream.Collectors.toSet());
-
-        // 计算连续天数
-        LocalDate today = LocalDate.now();
-        int continuousDays = 0;
-        LocalDate checkDate = today;
-
-        while (focusDates.contains(checkDate)) {
-            continuousDays++;
-            checkDate = checkDate.minusDays(1);
+    // 桶的起始时间：周从周一开始，月从1号开始
+    private LocalDateTime bucketStart(LocalDateTime time, Granularity granularity) {
+        LocalDate date = time.toLocalDate();
+        switch (granularity) {
+            case HOUR:
+                return time.truncatedTo(ChronoUnit.HOURS);
+            case WEEK:
+                return date.minusDays(date.getDayOfWeek().getValue() - 1).atStartOfDay();
+            case MONTH:
+                return date.withDayOfMonth(1).atStartOfDay();
+            default:
+                return date.atStartOfDay();
         }
-
-        return continuousDays;
     }
 
-    public Integer getTotalFocusDays(Long userId) {
-        List<FocusSession> sessions = focusSessionRepository.findByUserIdOrderByStartTimeDesc(userId);
-        if (sessions.isEmpty()) {
-            return 0;
+    private LocalDateTime nextBucket(LocalDateTime bucketStart, Granularity granularity) {
+        switch (granularity) {
+            case HOUR:
+                return bucketStart.plusHours(1);
+            case WEEK:
+                return bucketStart.plusWeeks(1);
+            case MONTH:
+                return bucketStart.plusMonths(1);
+            default:
+                return bucketStart.plusDays(1);
         }
+    }
 
-        // 统计不重复的专注日期数量
-        Set<LocalDate> focusDates = sessions.stream()
-                .map(session -> session.getStartTime().toLocalDate())
-                .collect(java.util.stream.Collectors.toSet());
+    private void addToBucket(FocusHistogramResponse.Bucket bucket, Object minutes, Object count) {
+        bucket.setTotalMinutes(bucket.getTotalMinutes() + ((Number) minutes).longValue());
+        bucket.setSessionCount(bucket.getSessionCount() + ((Number) count).longValue());
+    }
 
-        return focusDates.size();
+    private LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        return ((java.sql.Date) value).toLocalDate();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,154 @@
+package com.dailyapp.service;
+
+import com.dailyapp.dto.StatisticsResponse;
+import com.dailyapp.model.FocusDailyStat;
+import com.dailyapp.model.FocusUserStat;
+import com.dailyapp.repository.FocusDailyStatRepository;
+import com.dailyapp.repository.FocusSessionRepository;
+import com.dailyapp.repository.FocusUserStatRepository;
+import com.dailyapp.util.ActivityDays;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 专注统计汇总服务
+ * 维护按天汇总表和用户总计表，统计接口只读取少量汇总行，不再扫描全部专注记录
+ */
+@Service
+@RequiredArgsConstructor
+public class FocusStatsService {
+
+    private static final String CREATE_SUMMARY_SQL = "INSERT INTO focus_user_stats (user_id, total_minutes, session_count, active_days) "
+            + "SELECT ?, 0, 0, 0 WHERE NOT EXISTS (SELECT 1 FROM focus_user_stats WHERE user_id = ?)";
+
+    private final FocusDailyStatRepository focusDailyStatRepository;
+    private final FocusUserStatRepository focusUserStatRepository;
+    private final FocusSessionRepository focusSessionRepository;
+    private final ActivityService activityService;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 记录一次专注会话，需与会话保存处于同一事务中
+     */
+    @Transactional
+    public void recordSession(Long userId, LocalDate date, int durationMinutes) {
+        if (createSummaryIfAbsent(userId)) {
+            // 尚无汇总数据：根据历史记录重建（已包含本次会话）；并发的首次写入在插入汇总行时等待本事务提交
+            rebuildUser(userId);
+            return;
+        }
+
+        // 锁定用户汇总行，串行化同一用户的并发写入
+        FocusUserStat summary = focusUserStatRepository.findByUserIdForUpdate(userId)
+                .orElseThrow(() -> new IllegalStateException("专注统计汇总不存在"));
+        FocusDailyStat daily = focusDailyStatRepository.findByUserIdAndStatDate(userId, date).orElse(null);
+        if (daily == null) {
+            daily = new FocusDailyStat(null, userId, date, 0, 0);
+            summary.setActiveDays(summary.getActiveDays() + 1);
+        }
+        daily.setTotalMinutes(daily.getTotalMinutes() + durationMinutes);
+        daily.setSessionCount(daily.getSessionCount() + 1);
+        summary.setTotalMinutes(summary.getTotalMinutes() + durationMinutes);
+        summary.setSessionCount(summary.getSessionCount() + 1);
+
+        focusDailyStatRepository.save(daily);
+        focusUserStatRepository.save(summary);
+    }
+
+    @Transactional(readOnly = true)
+    public StatisticsResponse getStatistics(Long userId) {
+        LocalDate today = LocalDate.now();
+        LocalDate weekStart = today.minusDays(today.getDayOfWeek().getValue() - 1);
+        LocalDate monthStart = today.withDayOfMonth(1);
+        ActivityDays focusDays = activityService.getSnapshot(userId).getFocusDays();
+        StatisticsResponse.StatisticsResponseBuilder builder = StatisticsResponse.builder()
+                .continuousDays(focusDays.streakEndingAt(today))
+                .longestContinuousDays(focusDays.longestStreak());
+
+        FocusUserStat summary = focusUserStatRepository.findById(userId).orElse(null);
+        if (summary == null) {
+            // 尚无汇总数据（汇总表上线前的历史用户）：按专注记录临时计算，读请求不写入，汇总在下次记录会话时重建
+            List<FocusDailyStat> dailyStats = aggregateDaily(userId);
+            return builder
+                    .totalFocusTime(dailyStats.stream().mapToInt(FocusDailyStat::getTotalMinutes).sum())
+                    .totalFocusCount(dailyStats.stream().mapToInt(FocusDailyStat::getSessionCount).sum())
+                    .totalDays(dailyStats.size())
+                    .todayFocusTime(sumMinutes(dailyStats, today, today))
+                    .weeklyFocusTime(sumMinutes(dailyStats, weekStart, weekStart.plusDays(6)))
+                    .monthlyFocusTime(sumMinutes(dailyStats, monthStart, monthStart.plusMonths(1).minusDays(1)))
+                    .build();
+        }
+
+        return builder
+                .totalFocusTime(summary.getTotalMinutes())
+                .totalFocusCount(summary.getSessionCount())
+                .totalDays(summary.getActiveDays())
+                .todayFocusTime(sumMinutes(userId, today, today))
+                .weeklyFocusTime(sumMinutes(userId, weekStart, weekStart.plusDays(6)))
+                .monthlyFocusTime(sumMinutes(userId, monthStart, monthStart.plusMonths(1).minusDays(1)))
+                .build();
+    }
+
+    /**
+     * 根据专注记录重建某个用户的汇总数据，重建期间锁定用户汇总行
+     */
+    @Transactional
+    public FocusUserStat rebuildUser(Long userId) {
+        createSummaryIfAbsent(userId);
+        FocusUserStat summary = focusUserStatRepository.findByUserIdForUpdate(userId)
+                .orElseThrow(() -> new IllegalStateException("专注统计汇总不存在"));
+        focusDailyStatRepository.deleteByUserId(userId);
+
+        List<FocusDailyStat> dailyStats = aggregateDaily(userId);
+        focusDailyStatRepository.saveAll(dailyStats);
+
+        summary.setTotalMinutes(dailyStats.stream().mapToInt(FocusDailyStat::getTotalMinutes).sum());
+        summary.setSessionCount(dailyStats.stream().mapToInt(FocusDailyStat::getSessionCount).sum());
+        summary.setActiveDays(dailyStats.size());
+        return focusUserStatRepository.save(summary);
+    }
+
+    // 插入空的汇总行，已存在时不做任何事；返回是否由本次调用插入
+    private boolean createSummaryIfAbsent(Long userId) {
+        try {
+            return jdbcTemplate.update(CREATE_SUMMARY_SQL, userId, userId) > 0;
+        } catch (DuplicateKeyException e) {
+            // 并发请求先插入并已提交
+            return false;
+        }
+    }
+
+    private List<FocusDailyStat> aggregateDaily(Long userId) {
+        List<FocusDailyStat> dailyStats = new ArrayList<>();
+        for (Object[] row : focusSessionRepository.aggregateDailyByUserId(userId)) {
+            dailyStats.add(new FocusDailyStat(null, userId, toLocalDate(row[0]),
+                    ((Number) row[1]).intValue(), ((Number) row[2]).intValue()));
+        }
+        return dailyStats;
+    }
+
+    private Integer sumMinutes(List<FocusDailyStat> dailyStats, LocalDate startDate, LocalDate endDate) {
+        return dailyStats.stream()
+                .filter(daily -> !daily.getStatDate().isBefore(startDate) && !daily.getStatDate().isAfter(endDate))
+                .mapToInt(FocusDailyStat::getTotalMinutes)
+                .sum();
+    }
+
+    private Integer sumMinutes(Long userId, LocalDate startDate, LocalDate endDate) {
+        return focusDailyStatRepository.sumMinutesByUserIdAndDateRange(userId, startDate, endDate).intValue();
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        return ((java.sql.Date) value).toLocalDate();
+    }
+}
@@ -0,0 +1,41 @@
+package com.dailyapp.service;
+
+import com.dailyapp.model.TodoCollectionItem;
+import com.dailyapp.model.TodoItem;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.persistence.PostLoad;
+
+/**
+ * 实体加载后用写缓冲中尚未写入的专注时长覆盖，保证读取到最新值
+ * 由 Hibernate 通过 Spring 容器创建
+ */
+public class FocusTimeOverlayListener {
+
+    private final ObjectProvider<FocusTimeWriteBuffer> focusTimeWriteBuffer;
+
+    public FocusTimeOverlayListener(ObjectProvider<FocusTimeWriteBuffer> focusTimeWriteBuffer) {
+        this.focusTimeWriteBuffer = focusTimeWriteBuffer;
+    }
+
+    @PostLoad
+    public void overlay(Object entity) {
+        FocusTimeWriteBuffer buffer = focusTimeWriteBuffer.getIfAvailable();
+        if (buffer == null || !buffer.isEnabled()) {
+            return;
+        }
+        if (entity instanceof TodoItem) {
+            TodoItem todoItem = (TodoItem) entity;
+            Integer focusTime = buffer.getTodoItem(todoItem.getId());
+            if (focusTime != null) {
+                todoItem.setFocusTime(focusTime);
+            }
+        } else if (entity instanceof TodoCollectionItem) {
+            TodoCollectionItem item = (TodoCollectionItem) entity;
+            Integer focusTime = buffer.getCollectionItem(item.getId());
+            if (focusTime != null) {
+                item.setActualFocusTime(focusTime);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.dailyapp.service;
+
+import com.dailyapp.model.ChangeLogEntry.EntityType;
+import com.dailyapp.model.TodoCollectionItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 专注时长写缓冲
+ * 开启 focus-time.write-behind.enabled 后，专注时长更新只记录每个条目的最新值，
+ * 定时以 JDBC 批量写入数据库，关闭应用时再写一次；写入前读取到的实体由 FocusTimeOverlayListener 覆盖为缓冲值
+ */
+@Slf4j
+@Component
+public class FocusTimeWriteBuffer {
+
+    private final Map<Long, Pending> todoItems = new ConcurrentHashMap<>();
+    private final Map<Long, Pending> collectionItems = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeLogService changeLogService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataVersionService dataVersionService;
+
+    public FocusTimeWriteBuffer(@Value("${focus-time.write-behind.enabled:false}") boolean enabled,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ChangeLogService changeLogService,
+                                EntityManagerFactory entityManagerFactory,
+                                DataVersionService dataVersionService) {
+        this.enabled = enabled;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.changeLogService = changeLogService;
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataVersionService = dataVersionService;
+    }
+
+    /**
+     * 待写入的值，userId 用于写入时记录变更
+     */
+    private static class Pending {
+        private final Long userId;
+        private final Integer focusTime;
+
+        private Pending(Long userId, Integer focusTime) {
+            this.userId = userId;
+            this.focusTime = focusTime;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 缓冲值读取时即生效，同时更新数据版本号
+    public void putTodoItem(Long userId, Long todoId, Integer focusTime) {
+        todoItems.put(todoId, new Pending(userId, focusTime));
+        dataVersionService.bumpAfterCommit(userId);
+    }
+
+    public void putCollectionItem(Long userId, Long itemId, Integer focusTime) {
+        collectionItems.put(itemId, new Pending(userId, focusTime));
+        dataVersionService.bumpAfterCommit(userId);
+    }
+
+    public Integer getTodoItem(Long todoId) {
+        Pending pending = todoItems.get(todoId);
+        return pending != null ? pending.focusTime : null;
+    }
+
+    public Integer getCollectionItem(Long itemId) {
+        Pending pending = collectionItems.get(itemId);
+        return pending != null ? pending.focusTime : null;
+    }
+
+    @Scheduled(fixedDelayString = "${focus-time.write-behind.flush-interval:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public synchronized void flush() {
+        if (todoItems.isEmpty() && collectionItems.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Pending>> todoBatch = new ArrayList<>(todoItems.entrySet());
+        List<Map.Entry<Long, Pending>> itemBatch = new ArrayList<>(collectionItems.entrySet());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // 先锁定涉及的全部用户，再更新待办行，加锁顺序与请求事务一致
+            Set<Long> userIds = new HashSet<>();
+            todoBatch.forEach(entry -> userIds.add(entry.getValue().userId));
+            itemBatch.forEach(entry -> userIds.add(entry.getValue().userId));
+            changeLogService.lockUsers(userIds);
+            write("UPDATE todo_items SET focus_time = ? WHERE id = ?", todoBatch, EntityType.TODO_ITEM);
+            write("UPDATE todo_collection_items SET actual_focus_time = ? WHERE id = ?", itemBatch,
+                    EntityType.TODO_COLLECTION_ITEM);
+        });
+
+        // 子任务启用了二级缓存，绕过 Hibernate 更新后需要使缓存条目失效
+        for (Map.Entry<Long, Pending> entry : itemBatch) {
+            entityManagerFactory.getCache().evict(TodoCollectionItem.class, entry.getKey());
+        }
+        // 只移除已写入的值，写入期间的新值留到下一次
+        for (Map.Entry<Long, Pending> entry : todoBatch) {
+            todoItems.remove(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<Long, Pending> entry : itemBatch) {
+            collectionItems.remove(entry.getKey(), entry.getValue());
+        }
+        log.debug("专注时长写入 {} 条待办、{} 条子任务", todoBatch.size(), itemBatch.size());
+    }
+
+    private void write(String sql, List<Map.Entry<Long, Pending>> batch, EntityType entityType) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, batch, batch.size(), (statement, entry) -> {
+            statement.setInt(1, entry.getValue().focusTime);
+            statement.setLong(2, entry.getKey());
+        });
+        for (Map.Entry<Long, Pending> entry : batch) {
+            changeLogService.recordUpsert(entry.getValue().userId, entityType, entry.getKey());
+        }
+    }
+}
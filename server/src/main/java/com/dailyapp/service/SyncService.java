@@ -0,0 +1,140 @@
+package com.dailyapp.service;
+
+import com.dailyapp.dto.SyncChangesResponse;
+import com.dailyapp.model.ChangeLogEntry;
+import com.dailyapp.model.FocusSession;
+import com.dailyapp.model.TodoCollection;
+import com.dailyapp.model.TodoCollectionItem;
+import com.dailyapp.model.TodoItem;
+import com.dailyapp.model.ChangeLogEntry.EntityType;
+import com.dailyapp.model.ChangeLogEntry.Operation;
+import com.dailyapp.repository.ChangeLogRepository;
+import com.dailyapp.repository.FocusSessionRepository;
+import com.dailyapp.repository.TodoCollectionItemRepository;
+import com.dailyapp.repository.TodoCollectionRepository;
+import com.dailyapp.repository.TodoItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 增量同步服务：根据变更日志返回游标之后新增、修改和删除的数据
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class SyncService {
+
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 1000;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final ChangeLogService changeLogService;
+    private final TodoItemRepository todoItemRepository;
+    private final TodoCollectionRepository todoCollectionRepository;
+    private final TodoCollectionItemRepository todoCollectionItemRepository;
+    private final FocusSessionRepository focusSessionRepository;
+
+    public SyncChangesResponse getChanges(Long userId, Long since, Integer limit) {
+        SyncChangesResponse response = new SyncChangesResponse();
+
+        // 没有游标：客户端先全量拉取列表，再从当前游标开始增量同步
+        if (since == null) {
+            response.setCursor(changeLogService.currentCursor(userId));
+            response.setFullResync(true);
+            return response;
+        }
+
+        int pageLimit = (limit == null || limit <= 0) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        List<ChangeLogEntry> entries = changeLogRepository.findChangesSince(userId, since, PageRequest.of(0, pageLimit + 1));
+        // 读取变更之后再检查保留下限：游标之后的记录可能已被清理（包括读取期间），同样要求全量同步
+        if (changeLogService.isBeforeRetainedFloor(since)) {
+            response.setCursor(changeLogService.currentCursor(userId));
+            response.setFullResync(true);
+            return response;
+        }
+        boolean hasMore = entries.size() > pageLimit;
+        if (hasMore) {
+            entries = entries.subList(0, pageLimit);
+        }
+
+        // 同一实体多次变更只保留最后一次操作
+        Map<EntityType, Map<Long, Operation>> latest = new EnumMap<>(EntityType.class);
+        for (ChangeLogEntry entry : entries) {
+            latest.computeIfAbsent(entry.getEntityType(), type -> new LinkedHashMap<>())
+                    .put(entry.getEntityId(), entry.getOperation());
+        }
+
+        response.setTodoItems(load(latest, EntityType.TODO_ITEM, todoItemRepository, TodoItem::getId, response));
+        response.setTodoCollections(load(latest, EntityType.TODO_COLLECTION, todoCollectionRepository, TodoCollection::getId, response));
+        response.setTodoCollectionItems(load(latest, EntityType.TODO_COLLECTION_ITEM, todoCollectionItemRepository, TodoCollectionItem::getId, response));
+        response.setFocusSessions(load(latest, EntityType.FOCUS_SESSION, focusSessionRepository, FocusSession::getId, response));
+
+        response.setCursor(entries.isEmpty() ? since : entries.get(entries.size() - 1).getId());
+        response.setHasMore(hasMore);
+        return response;
+    }
+
+    /**
+     * 读取变更实体的当前数据，已删除时返回 null
+     */
+    public Object findEntity(EntityType entityType, Long id) {
+        switch (entityType) {
+            case TODO_ITEM:
+                return todoItemRepository.findById(id).orElse(null);
+            case TODO_COLLECTION:
+                return todoCollectionRepository.findById(id).orElse(null);
+            case TODO_COLLECTION_ITEM:
+                return todoCollectionItemRepository.findById(id).orElse(null);
+            case FOCUS_SESSION:
+                return focusSessionRepository.findById(id).orElse(null);
+            default:
+                return null;
+        }
+    }
+
+    private <T> List<T> load(Map<EntityType, Map<Long, Operation>> latest,
+                             EntityType entityType,
+                             JpaRepository<T, Long> repository,
+                             Function<T, Long> idOf,
+                             SyncChangesResponse response) {
+        Map<Long, Operation> operations = latest.get(entityType);
+        if (operations == null) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> upsertIds = new LinkedHashSet<>();
+        operations.forEach((id, operation) -> {
+            if (operation == Operation.UPSERT) {
+                upsertIds.add(id);
+            } else {
+                response.getDeleted().add(new SyncChangesResponse.Tombstone(entityType, id));
+            }
+        });
+        if (upsertIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<T> entities = repository.findAllById(upsertIds);
+        // 已被删除但删除记录不在本页的实体，同样按墓碑返回
+        Set<Long> foundIds = new LinkedHashSet<>();
+        entities.forEach(entity -> foundIds.add(idOf.apply(entity)));
+        for (Long id : upsertIds) {
+            if (!foundIds.contains(id)) {
+                response.getDeleted().add(new SyncChangesResponse.Tombstone(entityType, id));
+            }
+        }
+        return entities;
+    }
+}
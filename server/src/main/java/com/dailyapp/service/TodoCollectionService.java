@@ -1,67 +1,142 @@
 package com.dailyapp.service;
 
+import com.dailyapp.dto.CursorPage;
+import com.dailyapp.dto.PageCursor;
+import com.dailyapp.dto.SequenceResponse;
+import com.dailyapp.dto.TodoCollectionDetailResponse;
 import com.dailyapp.dto.TodoCollectionRequest;
+import com.dailyapp.model.ChangeLogEntry.EntityType;
 import com.dailyapp.model.TodoCollection;
 import com.dailyapp.model.TodoCollectionItem;
 import com.dailyapp.repository.TodoCollectionRepository;
 import com.dailyapp.repository.TodoCollectionItemRepository;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.Cache;
+import javax.persistence.CacheRetrieveMode;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.hibernate.cfg.AvailableSettings.JPA_SHARED_CACHE_RETRIEVE_MODE;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class TodoCollectionService {
     
+    private static final String INSERT_ITEMS_SQL = "INSERT INTO todo_collection_items "
+            + "(collection_id, title, description, duration_minutes, is_completed, order_index, create_time) ";
+    
+    // 创建合集时每条多行 INSERT 最多写入的子任务数，单条语句的绑定参数不超过 6 * 100 个
+    private static final int ITEM_INSERT_CHUNK = 100;
+    
+    private static final String SEQUENCE_COLUMNS = "id, user_id, title, description, is_sequence_active, "
+            + "current_task_index, item_count, create_time, completed_time";
+    
+    // 序列推进：未走完时移到下一个，走完则结束序列；SET 右侧均取更新前的值
+    private static final String NEXT_TASK_ASSIGNMENTS = "is_sequence_active = CASE WHEN current_task_index < item_count - 1 THEN TRUE ELSE FALSE END, "
+            + "current_task_index = CASE WHEN current_task_index < item_count - 1 THEN current_task_index + 1 ELSE -1 END";
+    
     private final TodoCollectionRepository todoCollectionRepository;
     private final TodoCollectionItemRepository todoCollectionItemRepository;
+    private final ChangeLogService changeLogService;
+    private final FocusTimeWriteBuffer focusTimeWriteBuffer;
+    private final JdbcTemplate jdbcTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
     
     public TodoCollection createTodoCollection(Long userId, TodoCollectionRequest request) {
         TodoCollection collection = new TodoCollection();
         collection.setUserId(userId);
         collection.setTitle(request.getTitle());
         collection.setDescription(request.getDescription());
+        List<TodoCollectionRequest.TodoCollectionItemRequest> itemRequests = request.getItems();
+        collection.setItemCount(itemRequests == null ? 0 : itemRequests.size());
         
         TodoCollection savedCollection = todoCollectionRepository.save(collection);
+        changeLogService.recordUpsert(userId, EntityType.TODO_COLLECTION, savedCollection.getId());
         
-        // 创建子任务
-        if (request.getItems() != null && !request.getItems().isEmpty()) {
-            for (int i = 0; i < request.getItems().size(); i++) {
-                TodoCollectionRequest.TodoCollectionItemRequest itemRequest = request.getItems().get(i);
-                TodoCollectionItem item = new TodoCollectionItem();
-                item.setCollectionId(savedCollection.getId());
-                item.setTitle(itemRequest.getTitle());
-                item.setDescription(itemRequest.getDescription());
-                item.setDurationMinutes(itemRequest.getDurationMinutes());
-                item.setOrderIndex(i);
-                
-                todoCollectionItemRepository.save(item);
+        // 创建子任务：按固定行数分批多行 INSERT
+        if (itemRequests != null && !itemRequests.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            for (int from = 0; from < itemRequests.size(); from += ITEM_INSERT_CHUNK) {
+                int to = Math.min(from + ITEM_INSERT_CHUNK, itemRequests.size());
+                insertItems(savedCollection.getId(), itemRequests.subList(from, to), from, now);
             }
+            changeLogService.recordUpserts(userId, EntityType.TODO_COLLECTION_ITEM,
+                    todoCollectionItemRepository.findIdsByCollectionId(savedCollection.getId()));
         }
         
         return savedCollection;
     }
     
+    /**
+     * 复制合集及其全部子任务，子任务在数据库内以 INSERT...SELECT 复制，不加载到内存
+     * 保留标题、描述、时长和顺序，完成状态、专注时长和序列进度重置
+     */
+    public TodoCollection cloneTodoCollection(Long userId, Long collectionId) {
+        TodoCollection source = getTodoCollectionByIdAndUserId(collectionId, userId);
+        
+        TodoCollection collection = new TodoCollection();
+        collection.setUserId(userId);
+        collection.setTitle(source.getTitle());
+        collection.setDescription(source.getDescription());
+        collection.setItemCount(source.getItemCount());
+        TodoCollection savedCollection = todoCollectionRepository.save(collection);
+        changeLogService.recordUpsert(userId, EntityType.TODO_COLLECTION, savedCollection.getId());
+        
+        Query query = entityManager.createNativeQuery(INSERT_ITEMS_SQL
+                + "SELECT :targetId, title, description, duration_minutes, FALSE, order_index, :createTime "
+                + "FROM todo_collection_items WHERE collection_id = :sourceId ORDER BY order_index, id");
+        query.setParameter("targetId", savedCollection.getId());
+        query.setParameter("createTime", LocalDateTime.now());
+        query.setParameter("sourceId", collectionId);
+        int copied = executeItemUpdate(query);
+        if (copied != savedCollection.getItemCount()) {
+            // 读取源合集后子任务又有增删，以实际复制的条数为准
+            savedCollection.setItemCount(copied);
+        }
+        if (copied > 0) {
+            changeLogService.recordUpserts(userId, EntityType.TODO_COLLECTION_ITEM,
+                    todoCollectionItemRepository.findIdsByCollectionId(savedCollection.getId()));
+        }
+        return savedCollection;
+    }
+    
     public TodoCollection updateTodoCollection(Long userId, Long collectionId, TodoCollectionRequest request) {
         TodoCollection collection = getTodoCollectionByIdAndUserId(collectionId, userId);
         
         collection.setTitle(request.getTitle());
         collection.setDescription(request.getDescription());
         
+        changeLogService.recordUpsert(userId, EntityType.TODO_COLLECTION, collectionId);
         return todoCollectionRepository.save(collection);
     }
     
     public TodoCollectionItem addItemToCollection(Long userId, Long collectionId, TodoCollectionRequest.TodoCollectionItemRequest itemRequest) {
         TodoCollection collection = getTodoCollectionByIdAndUserId(collectionId, userId);
         
-        // 获取当前最大的orderIndex
-        List<TodoCollectionItem> existingItems = todoCollectionItemRepository.findByCollectionIdOrderByOrderIndexAsc(collectionId);
-        int nextOrderIndex = existingItems.size();
+        // 新子任务排在最后，不再加载全部子任务计数
+        int nextOrderIndex = collection.getItemCount();
         
         TodoCollectionItem item = new TodoCollectionItem();
         item.setCollectionId(collectionId);
@@ -70,7 +145,10 @@ public class TodoCollectionService {
         item.setDurationMinutes(itemRequest.getDurationMinutes());
         item.setOrderIndex(nextOrderIndex);
         
-        return todoCollectionItemRepository.save(item);
+        TodoCollectionItem savedItem = todoCollectionItemRepository.save(item);
+        changeLogService.recordUpsert(userId, EntityType.TODO_COLLECTION_ITEM, savedItem.getId());
+        adjustItemCount(collectionId, 1);
+        return savedItem;
     }
     
     public TodoCollectionItem toggleCollectionItemStatus(Long userId, Long collectionId, Long itemId) {
@@ -90,54 +168,112 @@ public class TodoCollectionService {
         }
         
         TodoCollectionItem savedItem = todoCollectionItemRepository.save(item);
+        changeLogService.recordUpsert(userId, EntityType.TODO_COLLECTION_ITEM, itemId);
         
         // 检查是否所有子任务都已完成
-        checkAndMarkCollectionCompleted(collectionId);
+        checkAndMarkCollectionCompleted(userId, collectionId);
         
         return savedItem;
     }
     
-    public TodoCollection startSequence(Long userId, Long collectionId) {
-        TodoCollection collection = getTodoCollectionByIdAndUserId(collectionId, userId);
+    public TodoCollectionItem updateItemFocusTime(Long userId, Long collectionId, Long itemId, Integer focusTime) {
+        // 验证用户权限
+        getTodoCollectionByIdAndUserId(collectionId, userId);
         
-        collection.setIsSequenceActive(true);
-        collection.setCurrentTaskIndex(0);
+        Optional<TodoCollectionItem> itemOpt = todoCollectionItemRepository.findById(itemId);
+        if (itemOpt.isEmpty() || !itemOpt.get().getCollectionId().equals(collectionId)) {
+            throw new RuntimeException("子任务不存在或无权限访问");
+        }
         
-        return todoCollectionRepository.save(collection);
+        TodoCollectionItem item = itemOpt.get();
+        if (focusTimeWriteBuffer.isEnabled()) {
+            // 写缓冲模式：只记录最新值，由缓冲定时批量写入；实体脱离持久化上下文，避免提交时更新
+            focusTimeWriteBuffer.putCollectionItem(userId, itemId, focusTime);
+            entityManager.detach(item);
+            item.setActualFocusTime(focusTime);
+            return item;
+        }
+        item.setActualFocusTime(focusTime);
+        changeLogService.recordUpsert(userId, EntityType.TODO_COLLECTION_ITEM, itemId);
+        return todoCollectionItemRepository.save(item);
     }
     
-    public TodoCollection stopSequence(Long userId, Long collectionId) {
-        TodoCollection collection = getTodoCollectionByIdAndUserId(collectionId, userId);
-        
-        collection.setIsSequenceActive(false);
-        collection.setCurrentTaskIndex(-1);
-        
-        return todoCollectionRepository.save(collection);
+    /**
+     * 序列模式的开始、下一个、停止都是一条带条件的 UPDATE，并发调用不会跳过或重复子任务
+     * expectedIndex 不为空时只在当前进度与之相同时更新，否则返回 409
+     * “下一个”必须带上客户端最后看到的进度，两台设备同时点击时只有一次生效，另一次返回 409 而不会跳过子任务
+     */
+    public SequenceResponse startSequence(Long userId, Long collectionId, Integer expectedIndex) {
+        return updateSequence(userId, collectionId, expectedIndex, "is_sequence_active = TRUE, current_task_index = 0", false);
     }
     
-    public TodoCollection nextTaskInSequence(Long userId, Long collectionId) {
-        TodoCollection collection = getTodoCollectionByIdAndUserId(collectionId, userId);
-        
-        if (!collection.getIsSequenceActive()) {
-            throw new RuntimeException("序列模式未激活");
+    public SequenceResponse stopSequence(Long userId, Long collectionId, Integer expectedIndex) {
+        return updateSequence(userId, collectionId, expectedIndex, "is_sequence_active = FALSE, current_task_index = -1", false);
+    }
+    
+    public SequenceResponse nextTaskInSequence(Long userId, Long collectionId, int expectedIndex) {
+        return updateSequence(userId, collectionId, expectedIndex, NEXT_TASK_ASSIGNMENTS, true);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<TodoCollection> getUserTodoCollections(Long userId) {
+        return todoCollectionRepository.findByUserIdOrderByCreateTimeDesc(userId);
+    }
+    
+    /**
+     * 合集列表连同子任务和/或完成进度，查询次数与合集数无关：合集一条，子任务或进度一条
+     * 同时需要子任务和进度时，进度由已加载的子任务计算
+     */
+    @Transactional(readOnly = true)
+    public List<TodoCollectionDetailResponse> getUserTodoCollectionsExpanded(Long userId, boolean withItems, boolean withProgress) {
+        List<TodoCollection> collections = todoCollectionRepository.findByUserIdOrderByCreateTimeDesc(userId);
+        List<TodoCollectionDetailResponse> responses = new ArrayList<>(collections.size());
+        if (collections.isEmpty()) {
+            return responses;
         }
         
-        List<TodoCollectionItem> items = todoCollectionItemRepository.findByCollectionIdOrderByOrderIndexAsc(collectionId);
-        
-        if (collection.getCurrentTaskIndex() < items.size() - 1) {
-            collection.setCurrentTaskIndex(collection.getCurrentTaskIndex() + 1);
-        } else {
-            // 序列完成
-            collection.setIsSequenceActive(false);
-            collection.setCurrentTaskIndex(-1);
+        Map<Long, List<TodoCollectionItem>> itemsByCollection = Collections.emptyMap();
+        Map<Long, int[]> progressByCollection = new HashMap<>();
+        if (withItems) {
+            itemsByCollection = todoCollectionItemRepository.findByUserId(userId).stream()
+                    .collect(Collectors.groupingBy(TodoCollectionItem::getCollectionId));
+        } else if (withProgress) {
+            for (Object[] row : todoCollectionItemRepository.countProgressByUserId(userId)) {
+                progressByCollection.put((Long) row[0], new int[]{((Number) row[1]).intValue(), ((Number) row[2]).intValue()});
+            }
         }
         
-        return todoCollectionRepository.save(collection);
+        for (TodoCollection collection : collections) {
+            TodoCollectionDetailResponse response = TodoCollectionDetailResponse.from(collection);
+            List<TodoCollectionItem> items = itemsByCollection.getOrDefault(collection.getId(), Collections.emptyList());
+            if (withItems) {
+                response.setItems(items);
+            }
+            if (withProgress) {
+                int[] progress = withItems
+                        ? new int[]{items.size(), (int) items.stream().filter(TodoCollectionItem::getIsCompleted).count()}
+                        : progressByCollection.getOrDefault(collection.getId(), new int[2]);
+                response.setItemTotal(progress[0]);
+                response.setItemCompleted(progress[1]);
+            }
+            responses.add(response);
+        }
+        return responses;
     }
     
     @Transactional(readOnly = true)
-    public List<TodoCollection> getUserTodoCollections(Long userId) {
-        return todoCollectionRepository.findByUserIdOrderByCreateTimeDesc(userId);
+    public CursorPage<TodoCollection> getUserTodoCollectionsPage(Long userId, String cursor, Integer size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        // 多取一条用于判断是否还有下一页
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<TodoCollection> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = todoCollectionRepository.findFirstPageByUserId(userId, limit);
+        } else {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            rows = todoCollectionRepository.findPageByUserIdAfterCursor(userId, pageCursor.getTime(), pageCursor.getId(), limit);
+        }
+        return CursorPage.of(rows, pageSize, collection -> PageCursor.encode(collection.getCreateTime(), collection.getId()));
     }
     
     @Transactional(readOnly = true)
@@ -160,10 +296,13 @@ public class TodoCollectionService {
         TodoCollection collection = getTodoCollectionByIdAndUserId(collectionId, userId);
         
         // 删除所有子任务
+        changeLogService.recordDeletes(userId, EntityType.TODO_COLLECTION_ITEM,
+                todoCollectionItemRepository.findIdsByCollectionId(collectionId));
         todoCollectionItemRepository.deleteByCollectionId(collectionId);
         
         // 删除合集
         todoCollectionRepository.delete(collection);
+        changeLogService.recordDelete(userId, EntityType.TODO_COLLECTION, collectionId);
     }
     
     public void deleteCollectionItem(Long userId, Long collectionId, Long itemId) {
@@ -176,9 +315,100 @@ public class TodoCollectionService {
         }
         
         todoCollectionItemRepository.delete(itemOpt.get());
+        changeLogService.recordDelete(userId, EntityType.TODO_COLLECTION_ITEM, itemId);
+        adjustItemCount(collectionId, -1);
+    }
+    
+    private SequenceResponse updateSequence(Long userId, Long collectionId, Integer expectedIndex,
+                                            String assignments, boolean requireActive) {
+        // 一条语句完成条件更新并返回更新后的行
+        StringBuilder sql = new StringBuilder("SELECT ").append(SEQUENCE_COLUMNS)
+                .append(" FROM FINAL TABLE (UPDATE todo_collections SET ").append(assignments)
+                .append(" WHERE id = ? AND user_id = ?");
+        if (requireActive) {
+            sql.append(" AND is_sequence_active = TRUE");
+        }
+        List<Object> args = new ArrayList<>(List.of(collectionId, userId));
+        if (expectedIndex != null) {
+            sql.append(" AND current_task_index = ?");
+            args.add(expectedIndex);
+        }
+        sql.append(")");
+        
+        List<SequenceResponse> updated = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new SequenceResponse(
+                rs.getLong("id"), rs.getLong("user_id"), rs.getString("title"), rs.getString("description"),
+                rs.getBoolean("is_sequence_active"), rs.getInt("current_task_index"), rs.getInt("item_count"),
+                rs.getObject("create_time", LocalDateTime.class), rs.getObject("completed_time", LocalDateTime.class),
+                null), args.toArray());
+        if (updated.isEmpty()) {
+            // 没有更新到行时绕过二级缓存查询，区分不存在、未激活和进度已被其他设备改变
+            TodoCollection collection = entityManager.find(TodoCollection.class, collectionId,
+                    Map.of(JPA_SHARED_CACHE_RETRIEVE_MODE, CacheRetrieveMode.BYPASS));
+            if (collection == null || !collection.getUserId().equals(userId)) {
+                throw new RuntimeException("待办合集不存在或无权限访问");
+            }
+            if (requireActive && !collection.getIsSequenceActive()) {
+                throw new RuntimeException("序列模式未激活");
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "序列进度已变化，请刷新后重试");
+        }
+        evictCollection(collectionId);
+        changeLogService.recordUpsert(userId, EntityType.TODO_COLLECTION, collectionId);
+        
+        SequenceResponse sequence = updated.get(0);
+        if (sequence.getIsSequenceActive()) {
+            sequence.setCurrentItem(todoCollectionItemRepository.findByCollectionIdOrderByOrderIndexAscIdAsc(collectionId,
+                    PageRequest.of(sequence.getCurrentTaskIndex(), 1)).stream().findFirst().orElse(null));
+        }
+        return sequence;
+    }
+    
+    // JDBC 直接更新不经过 Hibernate，需自行清除该合集的二级缓存；提交后再清除一次，避免并发读取在提交前放回旧值
+    private void evictCollection(Long collectionId) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(TodoCollection.class, collectionId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.evict(TodoCollection.class, collectionId);
+            }
+        });
+    }
+    
+    // 在数据库内增减子任务数，并发增删子任务不会丢失计数；只清除该合集的二级缓存，不影响其他合集和查询缓存
+    private void adjustItemCount(Long collectionId, int delta) {
+        jdbcTemplate.update("UPDATE todo_collections SET item_count = item_count + ? WHERE id = ?", delta, collectionId);
+        evictCollection(collectionId);
+    }
+    
+    // 多行 INSERT 写入一批子任务，orderIndex 从 firstIndex 开始依次递增
+    private void insertItems(Long collectionId, List<TodoCollectionRequest.TodoCollectionItemRequest> itemRequests,
+                             int firstIndex, LocalDateTime createTime) {
+        StringBuilder sql = new StringBuilder(INSERT_ITEMS_SQL).append("VALUES ");
+        for (int i = 0; i < itemRequests.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, FALSE, ?, ?)");
+        }
+        Query query = entityManager.createNativeQuery(sql.toString());
+        int position = 1;
+        for (int i = 0; i < itemRequests.size(); i++) {
+            TodoCollectionRequest.TodoCollectionItemRequest itemRequest = itemRequests.get(i);
+            query.setParameter(position++, collectionId);
+            query.setParameter(position++, itemRequest.getTitle());
+            query.setParameter(position++, itemRequest.getDescription());
+            query.setParameter(position++, itemRequest.getDurationMinutes());
+            query.setParameter(position++, firstIndex + i);
+            query.setParameter(position++, createTime);
+        }
+        executeItemUpdate(query);
+    }
+    
+    // 声明只影响子任务表，Hibernate 只清除子任务的二级缓存和相关查询缓存
+    private int executeItemUpdate(Query query) {
+        query.unwrap(NativeQuery.class).addSynchronizedEntityClass(TodoCollectionItem.class);
+        return query.executeUpdate();
     }
     
-    private void checkAndMarkCollectionCompleted(Long collectionId) {
+    private void checkAndMarkCollectionCompleted(Long userId, Long collectionId) {
         Long totalItems = todoCollectionItemRepository.countTotalByCollectionId(collectionId);
         Long completedItems = todoCollectionItemRepository.countCompletedByCollectionId(collectionId);
         
@@ -188,6 +418,7 @@ public class TodoCollectionService {
                 TodoCollection collection = collectionOpt.get();
                 collection.markCompleted();
                 todoCollectionRepository.save(collection);
+                changeLogService.recordUpsert(userId, EntityType.TODO_COLLECTION, collectionId);
             }
         }
     }
@@ -1,15 +1,35 @@
 package com.dailyapp.service;
 
+import com.dailyapp.dto.CursorPage;
+import com.dailyapp.dto.PageCursor;
+import com.dailyapp.dto.TodoBatchResponse;
+import com.dailyapp.dto.TodoBatchResponse.ItemResult;
+import com.dailyapp.dto.TodoBatchResponse.Status;
 import com.dailyapp.dto.TodoItemRequest;
+import com.dailyapp.model.ChangeLogEntry.EntityType;
 import com.dailyapp.model.TodoItem;
 import com.dailyapp.repository.TodoItemRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -17,6 +37,15 @@ import java.util.Optional;
 public class TodoItemService {
     
     private final TodoItemRepository todoItemRepository;
+    private final ChangeLogService changeLogService;
+    private final FocusTimeWriteBuffer focusTimeWriteBuffer;
+    private final Validator validator;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${todo.batch.max-size:1000}")
+    private int batchMaxSize;
     
     public TodoItem createTodoItem(Long userId, TodoItemRequest request) {
         TodoItem todoItem = new TodoItem();
@@ -29,7 +58,94 @@ public class TodoItemService {
         todoItem.setIsUrgent(request.getIsUrgent());
         todoItem.setIsCompleted(false);
         
-        return todoItemRepository.save(todoItem);
+        TodoItem savedItem = todoItemRepository.save(todoItem);
+        changeLogService.recordUpsert(userId, EntityType.TODO_ITEM, savedItem.getId());
+        return savedItem;
+    }
+    
+    /**
+     * 批量新建或更新待办：逐条校验，校验通过的在同一事务中保存，插入和变更记录均按 JDBC 批次写入
+     * 带 id 的条目更新对应待办，不带 id 的新建
+     */
+    public TodoBatchResponse saveTodoItems(Long userId, List<TodoItemRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "待办列表不能为空");
+        }
+        if (requests.size() > batchMaxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "单次最多提交" + batchMaxSize + "条待办");
+        }
+        
+        // 一次查出需要更新的待办
+        Set<Long> updateIds = new LinkedHashSet<>();
+        for (TodoItemRequest request : requests) {
+            if (request != null && request.getId() != null) {
+                updateIds.add(request.getId());
+            }
+        }
+        Map<Long, TodoItem> existing = new HashMap<>();
+        for (TodoItem todoItem : todoItemRepository.findAllById(updateIds)) {
+            if (todoItem.getUserId().equals(userId)) {
+                existing.put(todoItem.getId(), todoItem);
+            }
+        }
+        
+        TodoBatchResponse response = new TodoBatchResponse();
+        List<TodoItem> toSave = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TodoItemRequest request = requests.get(i);
+            List<String> errors = validate(request);
+            TodoItem todoItem = null;
+            if (errors.isEmpty() && request.getId() != null) {
+                todoItem = existing.get(request.getId());
+                if (todoItem == null) {
+                    errors.add("待办事项不存在或无权限访问");
+                }
+            }
+            if (!errors.isEmpty()) {
+                response.setFailed(response.getFailed() + 1);
+                response.getResults().add(new ItemResult(i, Status.INVALID, null, errors));
+                continue;
+            }
+            
+            Status status;
+            if (todoItem == null) {
+                todoItem = new TodoItem();
+                todoItem.setUserId(userId);
+                todoItem.setIsCompleted(false);
+                status = Status.CREATED;
+                response.setCreated(response.getCreated() + 1);
+            } else {
+                status = Status.UPDATED;
+                response.setUpdated(response.getUpdated() + 1);
+            }
+            todoItem.setTitle(request.getTitle());
+            todoItem.setDescription(request.getDescription());
+            todoItem.setType(request.getType());
+            todoItem.setDuration(request.getDuration());
+            todoItem.setIsImportant(Boolean.TRUE.equals(request.getIsImportant()));
+            todoItem.setIsUrgent(Boolean.TRUE.equals(request.getIsUrgent()));
+            toSave.add(todoItem);
+            response.getResults().add(new ItemResult(i, status, todoItem, null));
+        }
+        
+        // 新建的待办在 persist 时即由序列分配ID，实际插入在提交时按批次执行
+        todoItemRepository.saveAll(toSave);
+        changeLogService.recordUpserts(userId, EntityType.TODO_ITEM,
+                toSave.stream().map(TodoItem::getId).distinct().collect(Collectors.toList()));
+        return response;
+    }
+    
+    private List<String> validate(TodoItemRequest request) {
+        List<String> errors = new ArrayList<>();
+        if (request == null) {
+            errors.add("待办不能为空");
+            return errors;
+        }
+        for (ConstraintViolation<TodoItemRequest> violation : validator.validate(request)) {
+            errors.add(violation.getMessage());
+        }
+        errors.sort(null);
+        return errors;
     }
     
     public TodoItem updateTodoItem(Long userId, Long todoId, TodoItemRequest request) {
@@ -42,6 +158,7 @@ public class TodoItemService {
         todoItem.setIsImportant(request.getIsImportant());
         todoItem.setIsUrgent(request.getIsUrgent());
         
+        changeLogService.recordUpsert(userId, EntityType.TODO_ITEM, todoId);
         return todoItemRepository.save(todoItem);
     }
     
@@ -54,12 +171,21 @@ public class TodoItemService {
             todoItem.markCompleted();
         }
         
+        changeLogService.recordUpsert(userId, EntityType.TODO_ITEM, todoId);
         return todoItemRepository.save(todoItem);
     }
     
     public TodoItem updateFocusTime(Long userId, Long todoId, Integer focusTime) {
         TodoItem todoItem = getTodoItemByIdAndUserId(todoId, userId);
+        if (focusTimeWriteBuffer.isEnabled()) {
+            // 写缓冲模式：只记录最新值，由缓冲定时批量写入；实体脱离持久化上下文，避免提交时更新
+            focusTimeWriteBuffer.putTodoItem(userId, todoId, focusTime);
+            entityManager.detach(todoItem);
+            todoItem.setFocusTime(focusTime);
+            return todoItem;
+        }
         todoItem.setFocusTime(focusTime);
+        changeLogService.recordUpsert(userId, EntityType.TODO_ITEM, todoId);
         return todoItemRepository.save(todoItem);
     }
     
@@ -68,6 +194,21 @@ public class TodoItemService {
         return todoItemRepository.findByUserIdOrderByCreateTimeDesc(userId);
     }
     
+    @Transactional(readOnly = true)
+    public CursorPage<TodoItem> getUserTodoItemsPage(Long userId, String cursor, Integer size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        // 多取一条用于判断是否还有下一页
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<TodoItem> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = todoItemRepository.findFirstPageByUserId(userId, limit);
+        } else {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            rows = todoItemRepository.findPageByUserIdAfterCursor(userId, pageCursor.getTime(), pageCursor.getId(), limit);
+        }
+        return CursorPage.of(rows, pageSize, item -> PageCursor.encode(item.getCreateTime(), item.getId()));
+    }
+    
     @Transactional(readOnly = true)
     public List<TodoItem> getUserTodoItemsByStatus(Long userId, Boolean isCompleted) {
         return todoItemRepository.findByUserIdAndIsCompletedOrderByCreateTimeDesc(userId, isCompleted);
@@ -90,6 +231,7 @@ public class TodoItemService {
     public void deleteTodoItem(Long userId, Long todoId) {
         TodoItem todoItem = getTodoItemByIdAndUserId(todoId, userId);
         todoItemRepository.delete(todoItem);
+        changeLogService.recordDelete(userId, EntityType.TODO_ITEM, todoId);
     }
     
     @Transactional(readOnly = true)
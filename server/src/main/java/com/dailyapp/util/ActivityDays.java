@@ -0,0 +1,113 @@
+package com.dailyapp.util;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+
+/**
+ * 按天记录活跃情况的位图，第 i 位对应 epoch day = baseDay + i
+ * 连续天数、最长连续天数和总天数都通过位运算得到，不需要读取历史记录
+ */
+public class ActivityDays {
+
+    // 与 user_activity 表中位图列的长度一致
+    public static final int MAX_BYTES = 8192;
+    private static final int MAX_DAYS = MAX_BYTES * 8;
+    // 可记录的日期范围，跨度不超过位图容量，范围内的任意日期组合都能放进同一个位图
+    public static final LocalDate MIN_DATE = LocalDate.of(2000, 1, 1);
+    public static final LocalDate MAX_DATE = MIN_DATE.plusDays(MAX_DAYS - 1);
+
+    private long baseDay;
+    private BitSet bits;
+
+    private ActivityDays(long baseDay, BitSet bits) {
+        this.baseDay = baseDay;
+        this.bits = bits;
+    }
+
+    public static ActivityDays empty() {
+        return new ActivityDays(0, new BitSet());
+    }
+
+    public static ActivityDays decode(Long baseDay, byte[] data) {
+        if (baseDay == null || data == null) {
+            return empty();
+        }
+        return new ActivityDays(baseDay, BitSet.valueOf(data));
+    }
+
+    public Long getBaseDay() {
+        return bits.isEmpty() ? null : baseDay;
+    }
+
+    public byte[] toByteArray() {
+        return bits.isEmpty() ? null : bits.toByteArray();
+    }
+
+    public static boolean supports(LocalDate date) {
+        return !date.isBefore(MIN_DATE) && !date.isAfter(MAX_DATE);
+    }
+
+    /**
+     * 标记某天为活跃，返回是否为新增的一天
+     */
+    public boolean add(LocalDate date) {
+        long day = date.toEpochDay();
+        if (bits.isEmpty()) {
+            baseDay = day;
+        } else if (day < baseDay) {
+            // 早于位图起点：整体右移，让新日期成为第0位
+            long shift = baseDay - day;
+            checkCapacity(bits.length() + shift);
+            BitSet shifted = new BitSet();
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                shifted.set((int) (i + shift));
+            }
+            bits = shifted;
+            baseDay = day;
+        }
+
+        long index = day - baseDay;
+        checkCapacity(index + 1);
+        if (bits.get((int) index)) {
+            return false;
+        }
+        bits.set((int) index);
+        return true;
+    }
+
+    public boolean contains(LocalDate date) {
+        long index = date.toEpochDay() - baseDay;
+        return !bits.isEmpty() && index >= 0 && index < bits.length() && bits.get((int) index);
+    }
+
+    /**
+     * 截止到某天（含）的连续活跃天数，当天不活跃时为0
+     */
+    public int streakEndingAt(LocalDate date) {
+        if (!contains(date)) {
+            return 0;
+        }
+        int index = (int) (date.toEpochDay() - baseDay);
+        return index - bits.previousClearBit(index);
+    }
+
+    public int longestStreak() {
+        int longest = 0;
+        for (int start = bits.nextSetBit(0); start >= 0; ) {
+            int end = bits.nextClearBit(start);
+            longest = Math.max(longest, end - start);
+            start = bits.nextSetBit(end);
+        }
+        return longest;
+    }
+
+    public int totalDays() {
+        return bits.cardinality();
+    }
+
+    private void checkCapacity(long days) {
+        if (days > MAX_DAYS) {
+            throw new RuntimeException("日期超出可记录范围");
+        }
+    }
+}
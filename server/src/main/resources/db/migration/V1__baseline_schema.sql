@@ -0,0 +1,109 @@
+-- 基线表结构，与此前 ddl-auto 生成的结构保持一致
+-- 约束名沿用 Hibernate 生成的名称，避免 ddl-auto: update 重复创建
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    created_at TIMESTAMP,
+    password VARCHAR(255) NOT NULL,
+    updated_at TIMESTAMP,
+    username VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_r43af9ap4edm43mmtq01oddj6 UNIQUE (username)
+);
+
+CREATE TABLE IF NOT EXISTS check_ins (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    created_at TIMESTAMP,
+    date DATE NOT NULL,
+    streak_count INTEGER NOT NULL,
+    time TIME NOT NULL,
+    updated_at TIMESTAMP,
+    version BIGINT,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fkjj9r2mr1v45h3867kcn28vd7b FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS focus_sessions (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    created_at TIMESTAMP,
+    duration_minutes INTEGER NOT NULL,
+    end_time TIMESTAMP NOT NULL,
+    start_time TIMESTAMP NOT NULL,
+    task_description VARCHAR(255) NOT NULL,
+    updated_at TIMESTAMP,
+    version BIGINT,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fkcjt1qit8ck1qmkfpjiocf322d FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS todo_items (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    completed_time TIMESTAMP,
+    create_time TIMESTAMP NOT NULL,
+    description VARCHAR(500),
+    duration INTEGER NOT NULL,
+    focus_time INTEGER,
+    is_completed BOOLEAN NOT NULL,
+    is_important BOOLEAN NOT NULL,
+    is_urgent BOOLEAN NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    type VARCHAR(100) NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS todo_collections (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    completed_time TIMESTAMP,
+    create_time TIMESTAMP NOT NULL,
+    current_task_index INTEGER,
+    description VARCHAR(500),
+    is_sequence_active BOOLEAN NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS todo_collection_items (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    actual_focus_time INTEGER,
+    collection_id BIGINT NOT NULL,
+    completed_time TIMESTAMP,
+    create_time TIMESTAMP NOT NULL,
+    description VARCHAR(500),
+    duration_minutes INTEGER NOT NULL,
+    is_completed BOOLEAN NOT NULL,
+    order_index INTEGER NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS focus_daily_stats (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    session_count INTEGER NOT NULL,
+    stat_date DATE NOT NULL,
+    total_minutes INTEGER NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk4319my874qtkj084r334sqyxq UNIQUE (user_id, stat_date)
+);
+
+CREATE TABLE IF NOT EXISTS focus_user_stats (
+    user_id BIGINT NOT NULL,
+    active_days INTEGER NOT NULL,
+    session_count INTEGER NOT NULL,
+    total_minutes INTEGER NOT NULL,
+    PRIMARY KEY (user_id)
+);
+
+CREATE TABLE IF NOT EXISTS change_log (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    changed_at TIMESTAMP NOT NULL,
+    entity_id BIGINT NOT NULL,
+    entity_type VARCHAR(32) NOT NULL,
+    operation VARCHAR(16) NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
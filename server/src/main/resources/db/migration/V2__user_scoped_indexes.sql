@@ -0,0 +1,21 @@
+-- 按用户过滤的热点查询复合索引
+
+-- 专注记录：按时间范围查询、按开始时间分页
+CREATE INDEX IF NOT EXISTS idx_focus_sessions_user_start ON focus_sessions (user_id, start_time);
+
+-- 待办：按创建时间分页、按完成状态/分类筛选
+CREATE INDEX IF NOT EXISTS idx_todo_items_user_create ON todo_items (user_id, create_time);
+CREATE INDEX IF NOT EXISTS idx_todo_items_user_completed ON todo_items (user_id, is_completed, create_time);
+CREATE INDEX IF NOT EXISTS idx_todo_items_user_type ON todo_items (user_id, type, create_time);
+
+-- 合集及子任务
+CREATE INDEX IF NOT EXISTS idx_todo_collections_user_create ON todo_collections (user_id, create_time);
+CREATE INDEX IF NOT EXISTS idx_todo_collection_items_collection_order ON todo_collection_items (collection_id, order_index);
+
+-- 增量同步游标
+CREATE INDEX IF NOT EXISTS idx_change_log_user_id ON change_log (user_id, id);
+
+-- 签到：每个用户每天一条。先清理并发签到产生的重复记录，保留最早的一条
+DELETE FROM check_ins c
+WHERE EXISTS (SELECT 1 FROM check_ins d WHERE d.user_id = c.user_id AND d.date = c.date AND d.id < c.id);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_check_ins_user_date ON check_ins (user_id, date);
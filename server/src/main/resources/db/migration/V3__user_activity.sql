@@ -0,0 +1,9 @@
+-- 用户活跃日位图：每天一位，分别记录专注日期和签到日期
+CREATE TABLE IF NOT EXISTS user_activity (
+    user_id BIGINT NOT NULL,
+    focus_base_day BIGINT,
+    focus_days VARBINARY(8192),
+    check_in_base_day BIGINT,
+    check_in_days VARBINARY(8192),
+    PRIMARY KEY (user_id)
+);
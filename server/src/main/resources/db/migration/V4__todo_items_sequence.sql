@@ -0,0 +1,4 @@
+-- 待办ID改由序列分配（pooled-lo，每次取50个），Hibernate 可批量插入
+-- 序列从现有最大ID之后开始，已有行和自增列不受影响
+CREATE SEQUENCE IF NOT EXISTS todo_items_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE todo_items_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM todo_items);
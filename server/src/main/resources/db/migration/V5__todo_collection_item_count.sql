@@ -0,0 +1,3 @@
+-- 合集子任务数冗余到合集表，序列推进在一条 UPDATE 内判断是否走完，不再加载全部子任务
+ALTER TABLE todo_collections ADD COLUMN IF NOT EXISTS item_count INTEGER DEFAULT 0 NOT NULL;
+UPDATE todo_collections c SET item_count = (SELECT COUNT(*) FROM todo_collection_items i WHERE i.collection_id = c.id);
@@ -0,0 +1,108 @@
+package com.dailyapp.controller;
+
+import com.dailyapp.model.User;
+import com.dailyapp.repository.UserRepository;
+import com.dailyapp.security.JwtService;
+import com.dailyapp.security.UserPrincipal;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 每个请求执行的 SQL 语句数：用户ID来自 JWT，鉴权和处理器都不应再查询用户表
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+class RequestStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String authorization;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("stmt-" + UUID.randomUUID());
+        user.setPassword("x");
+        user = userRepository.save(user);
+        authorization = "Bearer " + jwtService.generateToken(UserPrincipal.fromUser(user));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listTodosRunsOneStatement() throws Exception {
+        perform("/todos");
+
+        assertStatements(1);
+    }
+
+    @Test
+    void listCollectionsRunsOneStatement() throws Exception {
+        perform("/todo-collections");
+
+        assertStatements(1);
+    }
+
+    @Test
+    void sessionPageRunsOneStatement() throws Exception {
+        perform("/sessions/page");
+
+        assertStatements(1);
+    }
+
+    @Test
+    void statisticsReadsNoUserRows() throws Exception {
+        perform("/sessions/statistics");
+
+        assertStatements(5);
+    }
+
+    @Test
+    void dashboardReadsNoUserRows() throws Exception {
+        perform("/dashboard");
+
+        assertStatements(8);
+    }
+
+    private void perform(String url) throws Exception {
+        mockMvc.perform(get(url).header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk());
+    }
+
+    private void assertStatements(long expected) {
+        assertThat(statistics.getEntityStatistics(User.class.getName()).getLoadCount())
+                .as("用户表读取次数").isZero();
+        assertThat(statistics.getPrepareStatementCount())
+                .as("SQL 语句数，执行的查询：%s", Arrays.toString(statistics.getQueries()))
+                .isEqualTo(expected);
+    }
+}
@@ -0,0 +1,144 @@
+package com.dailyapp.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * 按用户过滤的热点查询必须走 V2 迁移建立的复合索引，而不是 V1 的外键索引或全表扫描，断言具体的索引名
+ * 表结构只由 Flyway 迁移生成（关闭 ddl-auto），与线上一致
+ * 被检查的 SQL 由 StatementInspector 截获，是调用仓库方法时 Hibernate 实际生成的语句，再用相同的参数执行 EXPLAIN
+ * 预置多个用户的数据并执行 ANALYZE，让优化器按真实的选择性选择索引
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.dailyapp.repository.QueryPlanTest$SqlRecorder"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    private static final long USER_ID = 3;
+    private static final long COLLECTION_ID = 3;
+    private static final LocalDateTime FROM = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final LocalDateTime TO = FROM.plusDays(7);
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private FocusSessionRepository focusSessionRepository;
+    @Autowired
+    private TodoItemRepository todoItemRepository;
+    @Autowired
+    private TodoCollectionRepository todoCollectionRepository;
+    @Autowired
+    private TodoCollectionItemRepository todoCollectionItemRepository;
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+    @Autowired
+    private CheckInRepository checkInRepository;
+
+    @BeforeAll
+    void seed() {
+        // 20 个用户，每人 200 条专注记录、200 条待办、20 个合集（每个 50 个子任务）、500 条变更记录、100 天签到
+        jdbcTemplate.update("INSERT INTO users (id, username, password) SELECT X, 'plan-user-' || X, 'x' FROM SYSTEM_RANGE(1, 20)");
+        jdbcTemplate.update("INSERT INTO focus_sessions (user_id, start_time, end_time, duration_minutes, task_description) "
+                + "SELECT MOD(X, 20) + 1, TIMESTAMP '2025-10-01 00:00:00' + X * INTERVAL '10' MINUTE, "
+                + "TIMESTAMP '2025-10-01 00:25:00' + X * INTERVAL '10' MINUTE, 25, 'plan' FROM SYSTEM_RANGE(1, 4000)");
+        jdbcTemplate.update("INSERT INTO todo_items (id, user_id, title, type, duration, is_completed, is_important, is_urgent, create_time) "
+                + "SELECT X, MOD(X, 20) + 1, 'plan', CASEWHEN(MOD(X, 3) = 0, 'work', 'life'), 25, MOD(X, 2) = 0, FALSE, FALSE, "
+                + "TIMESTAMP '2025-10-01 00:00:00' + X * INTERVAL '10' MINUTE FROM SYSTEM_RANGE(1, 4000)");
+        jdbcTemplate.update("INSERT INTO todo_collections (id, user_id, title, is_sequence_active, current_task_index, create_time) "
+                + "SELECT X, MOD(X, 20) + 1, 'plan', FALSE, -1, TIMESTAMP '2025-10-01 00:00:00' + X * INTERVAL '1' HOUR "
+                + "FROM SYSTEM_RANGE(1, 400)");
+        jdbcTemplate.update("INSERT INTO todo_collection_items (collection_id, title, duration_minutes, is_completed, order_index, create_time) "
+                + "SELECT MOD(X, 400) + 1, 'plan', 25, FALSE, X / 400, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(0, 19999)");
+        jdbcTemplate.update("INSERT INTO change_log (user_id, entity_type, entity_id, operation, changed_at) "
+                + "SELECT MOD(X, 20) + 1, 'TODO_ITEM', X, 'UPSERT', CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, 10000)");
+        jdbcTemplate.update("INSERT INTO check_ins (user_id, date, time, streak_count) "
+                + "SELECT MOD(X, 20) + 1, DATEADD(DAY, X / 20, DATE '2025-10-01'), TIME '08:00:00', 1 FROM SYSTEM_RANGE(0, 1999)");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                arguments("FocusSessionRepository.findByUserIdAndStartTimeInRange",
+                        (Runnable) () -> focusSessionRepository.findByUserIdAndStartTimeInRange(USER_ID, FROM, TO),
+                        new Object[]{USER_ID, FROM, TO}, "IDX_FOCUS_SESSIONS_USER_START"),
+                // 只有 user_id 是索引条件时，H2 在复合索引和 V1 外键索引之间选择更窄的外键索引，两者都要再排序，代价相同
+                arguments("FocusSessionRepository.findFirstPageByUserId",
+                        (Runnable) () -> focusSessionRepository.findFirstPageByUserId(USER_ID, PageRequest.of(0, PAGE_SIZE)),
+                        new Object[]{USER_ID, PAGE_SIZE}, "FKCJT1QIT8CK1QMKFPJIOCF322D_INDEX"),
+                arguments("FocusSessionRepository.aggregateDailyByUserIdAndTimeRange",
+                        (Runnable) () -> focusSessionRepository.aggregateDailyByUserIdAndTimeRange(USER_ID, FROM, TO),
+                        new Object[]{USER_ID, FROM, TO}, "IDX_FOCUS_SESSIONS_USER_START"),
+                arguments("TodoItemRepository.findFirstPageByUserId",
+                        (Runnable) () -> todoItemRepository.findFirstPageByUserId(USER_ID, PageRequest.of(0, PAGE_SIZE)),
+                        new Object[]{USER_ID, PAGE_SIZE}, "IDX_TODO_ITEMS_USER_CREATE"),
+                arguments("TodoItemRepository.findByUserIdAndIsCompletedOrderByCreateTimeDesc",
+                        (Runnable) () -> todoItemRepository.findByUserIdAndIsCompletedOrderByCreateTimeDesc(USER_ID, false),
+                        new Object[]{USER_ID, false}, "IDX_TODO_ITEMS_USER_COMPLETED"),
+                arguments("TodoItemRepository.findByUserIdAndTypeOrderByCreateTimeDesc",
+                        (Runnable) () -> todoItemRepository.findByUserIdAndTypeOrderByCreateTimeDesc(USER_ID, "work"),
+                        new Object[]{USER_ID, "work"}, "IDX_TODO_ITEMS_USER_TYPE"),
+                arguments("TodoCollectionRepository.findFirstPageByUserId",
+                        (Runnable) () -> todoCollectionRepository.findFirstPageByUserId(USER_ID, PageRequest.of(0, PAGE_SIZE)),
+                        new Object[]{USER_ID, PAGE_SIZE}, "IDX_TODO_COLLECTIONS_USER_CREATE"),
+                arguments("TodoCollectionItemRepository.findByCollectionIdOrderByOrderIndexAsc",
+                        (Runnable) () -> todoCollectionItemRepository.findByCollectionIdOrderByOrderIndexAsc(COLLECTION_ID),
+                        new Object[]{COLLECTION_ID}, "IDX_TODO_COLLECTION_ITEMS_COLLECTION_ORDER"),
+                arguments("ChangeLogRepository.findChangesSince",
+                        (Runnable) () -> changeLogRepository.findChangesSince(USER_ID, 100L, PageRequest.of(0, 500)),
+                        new Object[]{USER_ID, 100L, 500}, "IDX_CHANGE_LOG_USER_ID"),
+                arguments("CheckInRepository.existsByUserIdAndDate",
+                        (Runnable) () -> checkInRepository.existsByUserIdAndDate(USER_ID, LocalDate.of(2025, 10, 5)),
+                        new Object[]{USER_ID, LocalDate.of(2025, 10, 5), 1}, "UK_CHECK_INS_USER_DATE")
+        );
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("repositoryQueries")
+    void repositoryQueriesUseCompositeIndex(String method, Runnable call, Object[] parameters, String index) {
+        SqlRecorder.STATEMENTS.clear();
+        call.run();
+        assertThat(SqlRecorder.STATEMENTS).as("%s 生成的 SQL", method).hasSize(1);
+        String sql = SqlRecorder.STATEMENTS.get(0);
+
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+
+        // 走索引时计划中是 /* PUBLIC.索引名: 列 = ... */，全表扫描时是 /* PUBLIC.表名.tableScan */；外键索引名带有表序号后缀，按前缀匹配
+        assertThat(plan).as("%s%n%s", sql, plan)
+                .contains("/* PUBLIC." + index)
+                .doesNotContainIgnoringCase("tableScan");
+    }
+
+    /**
+     * 记录 Hibernate 准备执行的每条 SQL
+     */
+    public static class SqlRecorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.dailyapp.service;
+
+import com.dailyapp.model.ChangeLogEntry;
+import com.dailyapp.model.ChangeLogEntry.EntityType;
+import com.dailyapp.model.ChangeLogEntry.Operation;
+import com.dailyapp.model.TodoItem;
+import com.dailyapp.model.User;
+import com.dailyapp.repository.TodoItemRepository;
+import com.dailyapp.repository.UserRepository;
+import com.dailyapp.security.JwtService;
+import com.dailyapp.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 停止读取的客户端比推送线程多时，其他用户的事件仍能及时送达，停止读取的连接被断开
+ * 停止读取的客户端只用很小的接收缓冲区、从不读取，服务端固定较小的发送缓冲区（不随流量自动增长），推送大量事件后写出阻塞在 Tomcat 中
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "events.sender-threads=4",
+        "events.send-timeout=500",
+        "events.queue-capacity=100000"
+})
+@AutoConfigureTestDatabase
+class EventStreamStallTest {
+
+    private static final int STALLED_CLIENTS = 6;
+    private static final int EVENTS_PER_STALLED_CLIENT = 1_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TodoItemRepository todoItemRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private final List<Socket> sockets = new ArrayList<>();
+
+    @AfterEach
+    void closeSockets() throws IOException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    @Test
+    void stalledClientsDoNotDelayOtherUsers() throws Exception {
+        List<User> stalledUsers = new ArrayList<>();
+        for (int i = 0; i < STALLED_CLIENTS; i++) {
+            User user = createUser();
+            stalledUsers.add(user);
+            connect(user, 4096);
+        }
+        User healthyUser = createUser();
+        BufferedReader healthy = new BufferedReader(new InputStreamReader(
+                connect(healthyUser, 65536).getInputStream(), StandardCharsets.UTF_8));
+        awaitLine(healthy, "event:ready", 5000);
+        awaitConnections(STALLED_CLIENTS + 1, 5000);
+
+        // 每个事件约 1KB，合计远超过两端的套接字缓冲区，停止读取的连接很快写满
+        for (User user : stalledUsers) {
+            TodoItem todo = new TodoItem();
+            todo.setUserId(user.getId());
+            todo.setTitle(repeat('t', 255));
+            todo.setDescription(repeat('d', 500));
+            todo.setType("work");
+            todo.setDuration(25);
+            Long todoId = todoItemRepository.save(todo).getId();
+            for (long id = 1; id <= EVENTS_PER_STALLED_CLIENT; id++) {
+                eventStreamService.onChange(change(id, user.getId(), todoId, Operation.UPSERT));
+            }
+        }
+
+        // 该用户的推送任务排在所有停止读取的用户之后，推送线程被占住时无法送达
+        long start = System.currentTimeMillis();
+        eventStreamService.onChange(change(EVENTS_PER_STALLED_CLIENT + 1L, healthyUser.getId(), 1L, Operation.DELETE));
+        awaitLine(healthy, "event:change", 5000);
+        long latency = System.currentTimeMillis() - start;
+
+        assertThat(latency).as("事件送达耗时（毫秒）").isLessThan(5000);
+        awaitConnections(1, 5000);
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setUsername("stall-" + UUID.randomUUID());
+        user.setPassword("x");
+        return userRepository.save(user);
+    }
+
+    private Socket connect(User user, int receiveBuffer) throws IOException {
+        Socket socket = new Socket();
+        // 接收缓冲区需在连接前设置才会影响 TCP 窗口
+        socket.setReceiveBufferSize(receiveBuffer);
+        socket.connect(new InetSocketAddress("localhost", port));
+        // 读取超时使未送达的事件表现为测试失败而不是一直等待
+        socket.setSoTimeout(5000);
+        sockets.add(socket);
+        String token = jwtService.generateToken(UserPrincipal.fromUser(user));
+        socket.getOutputStream().write(("GET /api/events HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Accept: text/event-stream\r\n"
+                + "Authorization: Bearer " + token + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        socket.getOutputStream().flush();
+        return socket;
+    }
+
+    private ChangeLogEntry change(Long id, Long userId, Long entityId, Operation operation) {
+        return new ChangeLogEntry(id, userId, EntityType.TODO_ITEM, entityId, operation, LocalDateTime.now());
+    }
+
+    private void awaitLine(BufferedReader reader, String expected, int timeoutMillis) throws IOException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(expected)) {
+                return;
+            }
+            assertThat(System.currentTimeMillis()).as("等待 %s", expected).isLessThan(deadline);
+        }
+        throw new AssertionError("连接已关闭，未收到 " + expected);
+    }
+
+    private void awaitConnections(int expected, int timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (eventStreamService.getConnectionCount() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(eventStreamService.getConnectionCount()).as("在线连接数").isEqualTo(expected);
+    }
+
+    @TestConfiguration
+    static class SmallSendBuffer {
+
+        @Bean
+        WebServerFactoryCustomizer<TomcatServletWebServerFactory> smallSendBufferCustomizer() {
+            return factory -> factory.addConnectorCustomizers(connector -> connector.setProperty("socket.txBufSize", "8192"));
+        }
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,119 @@
+package com.dailyapp.service;
+
+import com.dailyapp.model.User;
+import com.dailyapp.repository.UserRepository;
+import com.dailyapp.service.ExportService.ExportFormat;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 在 -Xmx128m 下导出约 200MB（按实体计）的数据，一次性加载到内存会 OutOfMemoryError
+ * 由 pom.xml 中 surefire 的 low-memory 执行单独运行；使用文件数据库，数据不占用堆内存
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:file:./target/export-low-memory/${random.uuid};DB_CLOSE_ON_EXIT=FALSE")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ExportLowMemoryTest {
+
+    private static final int TODO_COUNT = 200_000;
+    private static final int INSERT_CHUNK = 10_000;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeAll
+    void insertTodos() {
+        User user = new User();
+        user.setUsername("export-" + UUID.randomUUID());
+        user.setPassword("x");
+        userId = userRepository.save(user).getId();
+
+        // 分批提交，避免单个大事务占用内存；文本末尾拼上ID，避免 H2 复用相同的字符串对象
+        for (int start = 1; start <= TODO_COUNT; start += INSERT_CHUNK) {
+            jdbcTemplate.update("INSERT INTO todo_items (id, create_time, description, duration, is_completed, "
+                            + "is_important, is_urgent, title, type, user_id) "
+                            + "SELECT X, CURRENT_TIMESTAMP, REPEAT('d', 400) || X, 25, FALSE, FALSE, FALSE, "
+                            + "REPEAT('t', 200) || X, 'work', ? FROM SYSTEM_RANGE(?, ?)",
+                    userId, start, start + INSERT_CHUNK - 1);
+        }
+    }
+
+    @Test
+    void ndjsonExportStreamsAllRows() throws IOException {
+        LineCountingOutputStream output = new LineCountingOutputStream();
+
+        exportService.export(userId, ExportFormat.NDJSON, output);
+
+        assertThat(output.lines).isEqualTo(TODO_COUNT);
+    }
+
+    @Test
+    void csvExportWritesOneFilePerRecordType() throws IOException {
+        File file = File.createTempFile("export", ".zip", new File("target"));
+        file.deleteOnExit();
+        try (OutputStream output = new FileOutputStream(file)) {
+            exportService.export(userId, ExportFormat.CSV, output);
+        }
+
+        try (ZipFile zip = new ZipFile(file)) {
+            List<String> names = new ArrayList<>();
+            zip.stream().forEach(entry -> names.add(entry.getName()));
+            assertThat(names).containsExactly(
+                    "todo.csv", "collection.csv", "collection_item.csv", "focus_session.csv", "check_in.csv");
+
+            ZipEntry todos = zip.getEntry("todo.csv");
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(zip.getInputStream(todos), StandardCharsets.UTF_8))) {
+                assertThat(reader.readLine()).startsWith("id,title,description,type,");
+                long rows = reader.lines().count();
+                assertThat(rows).isEqualTo(TODO_COUNT);
+            }
+        }
+    }
+
+    private static class LineCountingOutputStream extends OutputStream {
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -8,7 +8,8 @@ APP_NAME="harmony-daily-app"
 JAR_FILE="harmony-daily-app-0.0.1-SNAPSHOT.jar"
 PROFILE="prod"
 PORT="8080"
-JAVA_OPTS="-Xms512m -Xmx1024m"
+# ThreadPriorityPolicy=1 让登录线程池的低优先级在 Linux 上生效
+JAVA_OPTS="-Xms512m -Xmx1024m -XX:ThreadPriorityPolicy=1"
 
 # 颜色定义
 RED='\033[0;31m'